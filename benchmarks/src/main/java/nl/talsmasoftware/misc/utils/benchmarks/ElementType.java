@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils.benchmarks;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The type of elements to benchmark with.
+ */
+public enum ElementType {
+    STRING {
+        @Override
+        Object create(int value) {
+            return "value-" + value;
+        }
+    },
+    INTEGER {
+        @Override
+        Object create(int value) {
+            return value;
+        }
+    },
+    CUSTOM {
+        @Override
+        Object create(int value) {
+            return new CompositeKey("tenant-" + (value % 97), value);
+        }
+    };
+
+    /**
+     * Create a distinct element for every distinct value.
+     *
+     * @param value The value to create an element for.
+     * @return The element, comparable with other elements of the same type.
+     */
+    abstract Object create(int value);
+
+    /**
+     * Composite key with a more expensive {@code equals} and {@code hashCode} than strings or integers.
+     */
+    static final class CompositeKey implements Comparable<CompositeKey>, Serializable {
+        private final String tenant;
+        private final int id;
+
+        CompositeKey(String tenant, int id) {
+            this.tenant = tenant;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(CompositeKey other) {
+            final int result = tenant.compareTo(other.tenant);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof CompositeKey
+                    && id == ((CompositeKey) other).id
+                    && tenant.equals(((CompositeKey) other).tenant));
+        }
+
+        @Override
+        public String toString() {
+            return tenant + '/' + id;
+        }
+    }
+}
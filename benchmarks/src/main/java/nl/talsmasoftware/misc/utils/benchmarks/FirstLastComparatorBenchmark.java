@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils.benchmarks;
+
+import nl.talsmasoftware.misc.utils.FirstLastComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for comparing and sorting with a {@link FirstLastComparator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FirstLastComparatorBenchmark {
+    /**
+     * How the sorted elements are distributed over the pinned and the other values.
+     */
+    public enum Distribution {
+        HIT_HEAVY(0.8), MISS_HEAVY(0.02);
+
+        private final double hitRatio;
+
+        Distribution(double hitRatio) {
+            this.hitRatio = hitRatio;
+        }
+    }
+
+    @Param({"0", "1", "10", "100", "1000"})
+    public int pinnedCount;
+
+    @Param({"STRING", "INTEGER", "CUSTOM"})
+    public ElementType elementType;
+
+    @Param({"HIT_HEAVY", "MISS_HEAVY"})
+    public Distribution distribution;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Comparator<Object> comparator;
+    private Object[] values;
+
+    @Setup(Level.Trial)
+    public void createValues() {
+        final Random random = new Random(42L);
+        final List<Object> domain = new ArrayList<>(10 * pinnedCount + 10_000);
+        for (int i = 0; i < 10 * pinnedCount + 10_000; i++) {
+            domain.add(elementType.create(i));
+        }
+        Collections.shuffle(domain, random);
+
+        final List<Object> pinned = domain.subList(0, pinnedCount);
+        final List<Object> others = domain.subList(pinnedCount, domain.size());
+        comparator = FirstLastComparator.compareFirst(naturalOrder(), pinned);
+        values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = !pinned.isEmpty() && random.nextDouble() < distribution.hitRatio
+                    ? pinned.get(random.nextInt(pinned.size()))
+                    : others.get(random.nextInt(others.size()));
+        }
+    }
+
+    /**
+     * Copy of the values to be sorted, restored before every invocation of a sort benchmark.
+     * <p>
+     * Only the sort benchmarks use this state, so the {@code compare} benchmark is not burdened
+     * with the per-invocation setup.
+     */
+    @State(Scope.Thread)
+    public static class Work {
+        private Object[] values;
+
+        @Setup(Level.Trial)
+        public void allocate(FirstLastComparatorBenchmark benchmark) {
+            values = new Object[benchmark.size];
+        }
+
+        @Setup(Level.Invocation)
+        public void reset(FirstLastComparatorBenchmark benchmark) {
+            System.arraycopy(benchmark.values, 0, values, 0, benchmark.size);
+        }
+    }
+
+    @Benchmark
+    public void compare(Blackhole blackhole) {
+        for (int i = 1; i < size; i++) {
+            blackhole.consume(comparator.compare(values[i - 1], values[i]));
+        }
+    }
+
+    @Benchmark
+    public List<Object> listSort(Work work) {
+        final List<Object> list = Arrays.asList(work.values);
+        list.sort(comparator);
+        return list;
+    }
+
+    @Benchmark
+    public Object[] arraysSort(Work work) {
+        Arrays.sort(work.values, comparator);
+        return work.values;
+    }
+
+    @Benchmark
+    public Object[] arraysParallelSort(Work work) {
+        Arrays.parallelSort(work.values, comparator);
+        return work.values;
+    }
+
+    @Benchmark
+    public Object[] firstLastSort(Work work) {
+        FirstLastComparator.sort(work.values, comparator);
+        return work.values;
+    }
+
+    @Benchmark
+    public Object[] firstLastParallelSort(Work work) {
+        FirstLastComparator.parallelSort(work.values, comparator);
+        return work.values;
+    }
+
+    @Benchmark
+    public Object[] firstLastRadixSort(Work work) {
+        FirstLastComparator.radixSort(work.values, comparator);
+        return work.values;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> naturalOrder() {
+        return (Comparator) Comparator.naturalOrder();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils.benchmarks;
+
+import nl.talsmasoftware.misc.utils.FirstLastComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the explicit value lookup of a {@link FirstLastComparator} for small sets of pinned values,
+ * against a naive comparator that looks up the pinned values with {@link List#indexOf(Object)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RankLookupBenchmark {
+    private static final int SIZE = 10_000;
+
+    @Param({"2", "4", "8", "16"})
+    public int pinnedCount;
+
+    @Param({"STRING", "INTEGER", "CUSTOM"})
+    public ElementType elementType;
+
+    private Comparator<Object> firstLast;
+    private Comparator<Object> indexOf;
+    private Object[] values;
+
+    @Setup(Level.Trial)
+    public void createValues() {
+        final Random random = new Random(42L);
+        final List<Object> pinned = new ArrayList<>(pinnedCount);
+        for (int i = 0; i < pinnedCount; i++) {
+            pinned.add(elementType.create(i));
+        }
+        firstLast = FirstLastComparator.compareFirst(naturalOrder(), pinned);
+        indexOf = new IndexOfComparator(naturalOrder(), new ArrayList<>(pinned));
+        values = new Object[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = elementType.create(random.nextInt(2 * pinnedCount));
+        }
+    }
+
+    @Benchmark
+    public void firstLastCompare(Blackhole blackhole) {
+        for (int i = 1; i < SIZE; i++) {
+            blackhole.consume(firstLast.compare(values[i - 1], values[i]));
+        }
+    }
+
+    @Benchmark
+    public void indexOfCompare(Blackhole blackhole) {
+        for (int i = 1; i < SIZE; i++) {
+            blackhole.consume(indexOf.compare(values[i - 1], values[i]));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> naturalOrder() {
+        return (Comparator) Comparator.naturalOrder();
+    }
+
+    /**
+     * Baseline comparator that sorts the pinned values first by scanning the list of pinned values.
+     */
+    private static final class IndexOfComparator implements Comparator<Object> {
+        private final Comparator<Object> delegate;
+        private final ArrayList<Object> pinned;
+
+        private IndexOfComparator(Comparator<Object> delegate, ArrayList<Object> pinned) {
+            this.delegate = delegate;
+            this.pinned = pinned;
+        }
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            final int i1 = pinned.indexOf(o1);
+            final int i2 = pinned.indexOf(o2);
+            if (i1 < 0) return i2 < 0 ? delegate.compare(o1, o2) : 1;
+            return i2 < 0 ? -1 : Integer.compare(i1, i2);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils.benchmarks;
+
+import nl.talsmasoftware.misc.utils.FirstLastComparator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks serializing and deserializing a {@link FirstLastComparator} with many pinned values,
+ * against serializing the plain list of pinned values as a baseline.
+ * <p>
+ * The serialized sizes are reported by {@link #serializedSize(SerializedSize)} as secondary results,
+ * so they end up in the benchmark results next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+    @Param({"100", "10000"})
+    public int pinnedCount;
+
+    @Param({"STRING", "INTEGER", "CUSTOM"})
+    public ElementType elementType;
+
+    private Object first;
+    private ArrayList<Object> pinned;
+    private Comparator<Object> firstLast;
+    private byte[] serializedFirstLast;
+    private byte[] serializedList;
+
+    @Setup(Level.Trial)
+    public void createComparator() throws IOException {
+        pinned = new ArrayList<>(pinnedCount);
+        for (int i = 0; i < pinnedCount; i++) {
+            pinned.add(elementType.create(i));
+        }
+        first = pinned.get(0);
+        firstLast = FirstLastComparator.compareFirst(naturalOrder(), pinned);
+        serializedFirstLast = serialize(firstLast);
+        serializedList = serialize(pinned);
+    }
+
+    /**
+     * Serialized sizes in bytes, reported as secondary results of the {@code serializedSize} benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SerializedSize {
+        public long firstLastBytes;
+        public long listBytes;
+    }
+
+    /**
+     * Report the serialized sizes. Event counters are summed over the measurement iterations,
+     * so this benchmark runs a single iteration of a single invocation; its timing is meaningless.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public void serializedSize(SerializedSize size) {
+        size.firstLastBytes = serializedFirstLast.length;
+        size.listBytes = serializedList.length;
+    }
+
+    @Benchmark
+    public byte[] serializeFirstLast() throws IOException {
+        return serialize(firstLast);
+    }
+
+    @Benchmark
+    public Object deserializeFirstLast() throws IOException, ClassNotFoundException {
+        return deserialize(serializedFirstLast);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int deserializeFirstLastAndCompare() throws IOException, ClassNotFoundException {
+        return ((Comparator<Object>) deserialize(serializedFirstLast)).compare(first, first);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return serialize(pinned);
+    }
+
+    @Benchmark
+    public Object deserializeList() throws IOException, ClassNotFoundException {
+        return deserialize(serializedList);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> naturalOrder() {
+        return (Comparator) Comparator.naturalOrder();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Comparator for enum constants using a precomputed sort key for each ordinal.
+ * <p>
+ * The sort keys are derived once from another comparator, so comparing two constants only takes
+ * two array loads. Constants that are equal according to the other comparator share the same sort key.
+ * The sort keys are not serialized but derived again when deserialized,
+ * so they remain valid when the enum constants are reordered.
+ *
+ * @param <E> The enum type to be sorted.
+ * @see FirstLastComparator#forEnum(Class, Comparator, Enum[])
+ */
+final class EnumKeyComparator<E extends Enum<E>> implements Comparator<E>, Serializable {
+    private final Class<E> enumType;
+    private final Comparator<? super E> comparator;
+    private final transient int[] keys;
+
+    EnumKeyComparator(Class<E> enumType, Comparator<? super E> comparator) {
+        this.enumType = enumType;
+        this.comparator = comparator;
+        final E[] constants = enumType.getEnumConstants();
+        final E[] sorted = constants.clone();
+        Arrays.sort(sorted, comparator);
+        this.keys = new int[constants.length];
+        for (int i = 1, key = 0; i < sorted.length; i++) {
+            if (comparator.compare(sorted[i - 1], sorted[i]) != 0) key++;
+            keys[sorted[i].ordinal()] = key;
+        }
+    }
+
+    @Override
+    public int compare(E o1, E o2) {
+        return keys[o1.ordinal()] - keys[o2.ordinal()];
+    }
+
+    private Object readResolve() {
+        return new EnumKeyComparator<>(enumType, comparator);
+    }
+}
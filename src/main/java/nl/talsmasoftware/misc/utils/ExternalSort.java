@@ -0,0 +1,388 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * External merge sort for more records than fit in memory.
+ * <p>
+ * The records are read in runs of a bounded size. Each run is sorted in memory and written to a temporary file.
+ * Finally, all run files are read sequentially and merged into the output.
+ * <p>
+ * For comparators obtained from {@link FirstLastComparator}, each record is classified only once
+ * and its slot is stored along with the record. The merge orders records by their slot first,
+ * so explicit values are never compared with each other or with the 'other' records.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * ExternalSort<String> sort = ExternalSort.builder(comparator, RecordCodec.of(DataOutput::writeUTF, DataInput::readUTF))
+ *     .runSize(500_000)
+ *     .build();
+ * sort.sort(lines.iterator(), writer::println);
+ * }</pre>
+ * <p>
+ * Just like {@code Arrays.sort}, this sort is stable.
+ *
+ * @param <T> The type of records to be sorted.
+ */
+public final class ExternalSort<T> {
+    private static final int DEFAULT_RUN_SIZE = 1_000_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final Comparator<? super T> comparator;
+    private final RecordCodec<T> codec;
+    private final int runSize;
+    private final Path tempDirectory;
+    private final boolean parallel;
+
+    private ExternalSort(Builder<T> builder) {
+        this.comparator = builder.comparator;
+        this.codec = builder.codec;
+        this.runSize = builder.runSize;
+        this.tempDirectory = builder.tempDirectory;
+        this.parallel = builder.parallel;
+    }
+
+    /**
+     * Create a builder for an external sort.
+     *
+     * @param comparator The comparator determining the order of the records.
+     * @param codec      The codec to write records to and read them from run files.
+     * @param <T>        The type of records to be sorted.
+     * @return The builder for the external sort.
+     */
+    public static <T> Builder<T> builder(Comparator<? super T> comparator, RecordCodec<T> codec) {
+        return new Builder<>(Objects.requireNonNull(comparator, "Comparator is <null>."),
+                Objects.requireNonNull(codec, "Record codec is <null>."));
+    }
+
+    /**
+     * Sort records, passing them to the output in sorted order.
+     * <p>
+     * If all records fit in a single run, they are sorted in memory without writing any files.
+     * All temporary run files are deleted before this method returns.
+     *
+     * @param records The records to be sorted.
+     * @param output  The consumer for the sorted records.
+     * @throws IOException if writing or reading a run file failed.
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(Iterator<? extends T> records, Consumer<? super T> output) throws IOException {
+        Objects.requireNonNull(records, "Records are <null>.");
+        Objects.requireNonNull(output, "Output is <null>.");
+        final SlotOrder<T> order = SlotOrder.of(comparator);
+        final List<Run> runs = new ArrayList<>();
+        Throwable failure = null;
+        try {
+            Object[] values = new Object[Math.min(runSize, INITIAL_BUFFER_SIZE)];
+            int count = 0;
+            while (records.hasNext()) {
+                if (count == runSize) {
+                    writeRun(order, values, count, runs);
+                    count = 0;
+                } else if (count == values.length) {
+                    values = Arrays.copyOf(values, (int) Math.min(runSize, 2L * count));
+                }
+                values[count++] = records.next();
+            }
+            if (runs.isEmpty()) {
+                final Object[] run = count < values.length ? Arrays.copyOf(values, count) : values;
+                order.sort(run, parallel);
+                for (Object value : run) {
+                    output.accept((T) value);
+                }
+                return;
+            }
+            if (count > 0) writeRun(order, values, count, runs);
+            values = null; // allow the run buffer to be garbage collected during the merge
+            merge(order, runs, output);
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            close(runs, failure);
+        }
+    }
+
+    /**
+     * Close all runs, deleting their files.
+     * If the sort already failed, close failures are added to that failure as suppressed exceptions,
+     * so they never replace the original cause.
+     */
+    private void close(List<Run> runs, Throwable failure) throws IOException {
+        IOException closeException = null;
+        for (Run run : runs) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                if (failure != null) failure.addSuppressed(e);
+                else if (closeException == null) closeException = e;
+                else closeException.addSuppressed(e);
+            }
+        }
+        if (closeException != null) throw closeException;
+    }
+
+    /**
+     * Sort the first {@code count} values in memory and write them to a new run file.
+     * The run is added to the runs before it is written, so its file is deleted even if writing fails.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeRun(SlotOrder<T> order, Object[] values, int count, List<Run> runs) throws IOException {
+        final Object[] run = count < values.length ? Arrays.copyOf(values, count) : values;
+        final Object[] keys = order.keysOf(run, parallel);
+        final int[] offsets = order.sort(run, keys, parallel);
+        final Run file = new Run(createRunFile(), count);
+        runs.add(file);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.path), BUFFER_SIZE))) {
+            for (int slot = 0; slot < offsets.length - 1; slot++) {
+                for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                    out.writeInt(slot);
+                    codec.write((T) run[i], out);
+                }
+            }
+        }
+    }
+
+    /**
+     * K-way merge of the sorted run files into the output, ordering by slot first.
+     */
+    private void merge(SlotOrder<T> order, List<Run> runs, Consumer<? super T> output) throws IOException {
+        final PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), (run1, run2) -> {
+            final int result = order.compare(run1.key, run1.slot, run2.key, run2.slot);
+            return result != 0 ? result : Integer.compare(run1.index, run2.index);
+        });
+        for (int index = 0; index < runs.size(); index++) {
+            final Run run = runs.get(index);
+            run.index = index;
+            if (run.open(order)) queue.add(run);
+        }
+        while (!queue.isEmpty()) {
+            final Run run = queue.poll();
+            output.accept(run.value);
+            if (run.next(order)) queue.add(run);
+        }
+    }
+
+    private Path createRunFile() throws IOException {
+        return tempDirectory == null
+                ? Files.createTempFile("external-sort-", ".run")
+                : Files.createTempFile(tempDirectory, "external-sort-", ".run");
+    }
+
+    /**
+     * A sorted run file, read sequentially during the merge.
+     */
+    private final class Run implements Closeable {
+        private final Path path;
+        private int remaining;
+        private int index;
+        private DataInputStream in;
+        private T value;
+        private Object key;
+        private int slot;
+
+        private Run(Path path, int count) {
+            this.path = path;
+            this.remaining = count;
+        }
+
+        private boolean open(SlotOrder<T> order) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            return next(order);
+        }
+
+        private boolean next(SlotOrder<T> order) throws IOException {
+            if (remaining == 0) {
+                value = null;
+                key = null;
+                return false;
+            }
+            remaining--;
+            slot = in.readInt();
+            value = codec.read(in);
+            key = order.keyOf(value);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (in != null) in.close();
+            } catch (IOException closeFailed) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException deleteFailed) {
+                    closeFailed.addSuppressed(deleteFailed);
+                }
+                throw closeFailed;
+            }
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Writes records to and reads records from run files.
+     *
+     * @param <T> The type of records.
+     */
+    public interface RecordCodec<T> {
+        /**
+         * Write a record.
+         *
+         * @param record The record to write.
+         * @param out    The output to write the record to.
+         * @throws IOException if writing the record failed.
+         */
+        void write(T record, DataOutput out) throws IOException;
+
+        /**
+         * Read a record that was written by {@link #write(Object, DataOutput)}.
+         *
+         * @param in The input to read the record from.
+         * @return The record.
+         * @throws IOException if reading the record failed.
+         */
+        T read(DataInput in) throws IOException;
+
+        /**
+         * Create a codec from a writer and a reader function.
+         *
+         * @param writer The function writing a record.
+         * @param reader The function reading a record.
+         * @param <T>    The type of records.
+         * @return The codec for the records.
+         */
+        static <T> RecordCodec<T> of(Writer<? super T> writer, Reader<? extends T> reader) {
+            Objects.requireNonNull(writer, "Writer is <null>.");
+            Objects.requireNonNull(reader, "Reader is <null>.");
+            return new RecordCodec<T>() {
+                @Override
+                public void write(T record, DataOutput out) throws IOException {
+                    writer.write(out, record);
+                }
+
+                @Override
+                public T read(DataInput in) throws IOException {
+                    return reader.read(in);
+                }
+            };
+        }
+
+        /**
+         * Function writing a record.
+         *
+         * @param <T> The type of records.
+         */
+        @FunctionalInterface
+        interface Writer<T> {
+            void write(DataOutput out, T record) throws IOException;
+        }
+
+        /**
+         * Function reading a record.
+         *
+         * @param <T> The type of records.
+         */
+        @FunctionalInterface
+        interface Reader<T> {
+            T read(DataInput in) throws IOException;
+        }
+    }
+
+    /**
+     * Builder for an external sort.
+     *
+     * @param <T> The type of records to be sorted.
+     */
+    public static final class Builder<T> {
+        private final Comparator<? super T> comparator;
+        private final RecordCodec<T> codec;
+        private int runSize = DEFAULT_RUN_SIZE;
+        private Path tempDirectory;
+        private boolean parallel = true;
+
+        private Builder(Comparator<? super T> comparator, RecordCodec<T> codec) {
+            this.comparator = comparator;
+            this.codec = codec;
+        }
+
+        /**
+         * The maximum number of records to sort in memory (default: {@code 1000000}).
+         * <p>
+         * The buffer for a run grows as records are read, so small inputs do not allocate the full run size.
+         *
+         * @param runSize The maximum number of records in a single run.
+         * @return This builder.
+         */
+        public Builder<T> runSize(int runSize) {
+            if (runSize < 1) throw new IllegalArgumentException("Run size must be positive: " + runSize);
+            this.runSize = runSize;
+            return this;
+        }
+
+        /**
+         * The directory for the temporary run files (default: the default temporary-file directory).
+         *
+         * @param tempDirectory The directory for the run files.
+         * @return This builder.
+         */
+        public Builder<T> tempDirectory(Path tempDirectory) {
+            this.tempDirectory = Objects.requireNonNull(tempDirectory, "Temporary directory is <null>.");
+            return this;
+        }
+
+        /**
+         * Whether to sort each run in memory using parallel sub-tasks (default: {@code true}).
+         * <p>
+         * Only the in-memory sort of a single run is parallel;
+         * the runs themselves are still read, sorted and written one after the other.
+         *
+         * @param parallel Whether to sort the records within each run in parallel.
+         * @return This builder.
+         */
+        public Builder<T> parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * @return The external sort.
+         */
+        public ExternalSort<T> build() {
+            return new ExternalSort<>(this);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Unbounded blocking priority queue, ordered by the slots of a comparator.
+ * <p>
+ * Every explicit value of a {@link FirstLastComparator} gets its own lock-free FIFO lane.
+ * Only the 'other' values are kept in a {@link PriorityBlockingQueue} ordered by the delegate comparator.
+ * Adding or removing explicit values therefore takes constant time and does not contend
+ * with adding or removing 'other' values. The head of the queue is taken from the first non-empty lane,
+ * found through a bitmap of the non-empty lanes: taking an element does not visit the empty lanes.
+ * <p>
+ * For example, a work scheduler serving VIP tenants first:
+ * <pre>{@code
+ * BlockingQueue<Task> tasks = new FirstLastBlockingQueue<>(FirstLastComparator.comparing(Task::getTenant,
+ *     FirstLastComparator.compareFirst(Comparator.naturalOrder(), vipTenants)));
+ * }</pre>
+ * <p>
+ * Elements of the same explicit value are returned in insertion order,
+ * just like for a {@link FirstLastComparator#encounterOrder() encounter order} delegate.
+ * Like {@code PriorityBlockingQueue}, the order of other elements that compare equal is not guaranteed.
+ * The {@link #iterator() iterator} is weakly consistent and returns the lanes in slot order,
+ * but the 'other' elements in no particular order.
+ * This queue does not permit {@code null} elements.
+ *
+ * @param <E> The type of elements held in this queue.
+ */
+public final class FirstLastBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+    private final SlotOrder<E> order;
+
+    /**
+     * The elements per slot, in slot order.
+     */
+    private final Queue<E>[] lanes;
+
+    /**
+     * Bitmap of the lanes that may contain elements.
+     * <p>
+     * The bit of a lane is set after adding an element to it. It is only cleared when the lane is found empty,
+     * and set again if the lane turns out to have received an element in the meantime.
+     * A lane containing elements therefore always has its bit set.
+     */
+    private final AtomicLongArray nonEmptyLanes;
+
+    /**
+     * One permit for every element in the queue that is not yet claimed for removal.
+     */
+    private final Semaphore available = new Semaphore(0);
+
+    /**
+     * Create a new queue.
+     *
+     * @param comparator The comparator determining the order of the queue.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public FirstLastBlockingQueue(Comparator<? super E> comparator) {
+        final Comparator<? super E> snapshot =
+                LiveFirstLastComparator.snapshotOf(Objects.requireNonNull(comparator, "Comparator is <null>."));
+        this.order = SlotOrder.of(snapshot);
+        this.lanes = new Queue[order.slotCount()];
+        for (int slot = 0; slot < lanes.length; slot++) {
+            lanes[slot] = order.isOrderedSlot(slot)
+                    ? new PriorityBlockingQueue<>(11, (e1, e2) -> order.compareKeys(order.keyOf(e1), order.keyOf(e2)))
+                    : new ConcurrentLinkedQueue<>();
+        }
+        this.nonEmptyLanes = new AtomicLongArray((lanes.length + 63) >>> 6);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "Element is <null>.");
+        final int slot = order.slotOf(order.keyOf(element));
+        lanes[slot].offer(element);
+        markNonEmpty(slot);
+        available.release();
+        return true;
+    }
+
+    @Override
+    public void put(E element) {
+        offer(element);
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) {
+        return offer(element);
+    }
+
+    @Override
+    public E poll() {
+        return available.tryAcquire() ? claimed() : null;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        available.acquire();
+        return claimed();
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? claimed() : null;
+    }
+
+    /**
+     * Remove the head of the queue, after a permit was acquired for it.
+     * <p>
+     * Every permit guarantees an element that is not claimed by another consumer,
+     * because removals take a permit before they take an element from its lane.
+     * A scan can still miss that element when it is added to a lane that was already scanned,
+     * while another consumer takes the element the scan was heading for. In that case the lanes are scanned again.
+     *
+     * @return The removed head of the queue.
+     */
+    private E claimed() {
+        for (; ; Thread.yield()) {
+            for (int word = 0; word < nonEmptyLanes.length(); word++) {
+                for (long bits = nonEmptyLanes.get(word); bits != 0L; bits &= bits - 1) {
+                    final int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    final E element = lanes[slot].poll();
+                    if (element != null) return element;
+                    markEmpty(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove an element from a lane, taking its permit first.
+     * <p>
+     * If all permits are claimed by consumers, the removal waits until the element is taken
+     * or a permit becomes available. The permit is handed back if the element was not in the lane after all.
+     *
+     * @param lane  The lane to remove the element from.
+     * @param probe The element to remove, or a probe that is only equal to it.
+     * @return Whether the element was removed.
+     */
+    private boolean removeFrom(Queue<E> lane, Object probe) {
+        while (!available.tryAcquire()) {
+            if (!lane.contains(probe)) return false;
+            Thread.yield();
+        }
+        if (lane.remove(probe)) return true;
+        available.release();
+        return false;
+    }
+
+    private void markNonEmpty(int slot) {
+        final long bit = 1L << slot;
+        if ((nonEmptyLanes.get(slot >>> 6) & bit) == 0L) {
+            nonEmptyLanes.accumulateAndGet(slot >>> 6, bit, (bits, set) -> bits | set);
+        }
+    }
+
+    private void markEmpty(int slot) {
+        nonEmptyLanes.accumulateAndGet(slot >>> 6, ~(1L << slot), (bits, mask) -> bits & mask);
+        if (!lanes[slot].isEmpty()) markNonEmpty(slot); // an element was added concurrently
+    }
+
+    @Override
+    public E peek() {
+        for (int word = 0; word < nonEmptyLanes.length(); word++) {
+            for (long bits = nonEmptyLanes.get(word); bits != 0L; bits &= bits - 1) {
+                final E element = lanes[(word << 6) + Long.numberOfTrailingZeros(bits)].peek();
+                if (element != null) return element;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (element == null) return false;
+        for (int word = 0; word < nonEmptyLanes.length(); word++) {
+            for (long bits = nonEmptyLanes.get(word); bits != 0L; bits &= bits - 1) {
+                final Queue<E> lane = lanes[(word << 6) + Long.numberOfTrailingZeros(bits)];
+                if (lane.contains(element) && removeFrom(lane, element)) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        Objects.requireNonNull(collection, "Collection is <null>.");
+        if (collection == this) throw new IllegalArgumentException("Cannot drain a queue to itself.");
+        int count = 0;
+        while (count < maxElements && available.tryAcquire()) {
+            collection.add(claimed());
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return available.availablePermits();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int slot = 0;
+            private Iterator<E> current = Collections.emptyIterator();
+            private Queue<E> lastLane;
+            private E lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && slot < lanes.length) {
+                    current = lanes[slot++].iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                lastLane = lanes[slot - 1];
+                return lastReturned = current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) throw new IllegalStateException();
+                // remove the returned instance itself, not an equal element
+                removeFrom(lastLane, new SameInstance(lastReturned));
+                lastReturned = null;
+            }
+        };
+    }
+
+    /**
+     * Probe that is only equal to one specific instance.
+     * <p>
+     * The lanes compare the probe with their elements by calling {@code probe.equals(element)},
+     * so removing the probe removes exactly that instance and reports whether it was still in the lane.
+     * The iterators of the lanes cannot be used for this, because their {@code remove} does not report
+     * whether a concurrent consumer already took the element.
+     */
+    private static final class SameInstance {
+        private final Object instance;
+
+        private SameInstance(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == instance;
+        }
+    }
+}
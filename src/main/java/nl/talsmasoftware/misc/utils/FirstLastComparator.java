@@ -15,13 +15,29 @@
  */
 package nl.talsmasoftware.misc.utils;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Comparator to sort certain values first or last.
@@ -33,20 +49,193 @@ import java.util.Objects;
  * }</pre>
  * In the example above, {@code ADJUSTED_ORDER} will sort Strings case-insensitive
  * where {@code "Always last"} is always sorted last.
+ * <p>
+ * A single comparator can also sort some values first and others last,
+ * see {@link #compareFirstLast(Comparator, Collection, Collection)}.
  *
  * @param <T> The type to be sorted.
  */
 public final class FirstLastComparator<T> implements Comparator<T>, Serializable {
+    private static final Object[] NO_VALUES = new Object[0];
+
     private final Comparator<T> delegate;
 
-    private final boolean compareFirst;
+    /**
+     * Index of each explicit value to its position: first values followed by the last values.
+     */
+    private final RankTable ranks;
+
+    /**
+     * Lookup of the position of a value among the explicit values or prefixes, or {@code -1} for 'other' values.
+     * The lookup is chosen once when the comparator is created, so comparing does not branch on the kind of comparator.
+     */
+    private final ToIntFunction<Object> positions;
+
+    /**
+     * The slot shared by all 'other' values, which is also the number of slots for values sorted first.
+     */
+    private final int otherSlot;
+
+    /**
+     * The number of slots.
+     */
+    private final int slotCount;
+
+    /**
+     * The slot of each explicit value by its position, or {@code null} if every explicit value has its own slot.
+     */
+    private final int[] positionSlots;
+
+    /**
+     * Whether the values within each slot are ordered by the delegate, or {@code null} if there are no tiers.
+     */
+    private final boolean[] tiers;
+
+    /**
+     * Condition for values that are sorted first or last instead of explicit values, or {@code null}.
+     */
+    private final Predicate<Object> condition;
+
+    /**
+     * Prefixes of string values that are sorted first or last instead of explicit values, or {@code null}.
+     */
+    private final PrefixTrie prefixes;
 
-    private final List<T> explicitValues;
+    /**
+     * Whether the position of {@link RankAware} values is cached in the values themselves.
+     */
+    private final boolean cacheRanks;
 
-    private FirstLastComparator(Comparator<T> delegate, boolean compareFirst, Collection<? extends T> explicitValues) {
+    private FirstLastComparator(Comparator<T> delegate, Object[] firstValues, Object[] lastValues) {
+        this(delegate, firstValues, null, lastValues, null);
+    }
+
+    /**
+     * Create a comparator for explicit values in tiers.
+     * <p>
+     * Consecutive explicit values with the same tier number share a single slot, ordered by the delegate.
+     * Every distinct value is placed in the tier of its first occurrence.
+     *
+     * @param delegate    The main sorting delegate for all 'other' values and the values within a tier.
+     * @param firstValues The values to be sorted first.
+     * @param firstTiers  The tier number of each first value, or {@code null} if every value is its own tier.
+     * @param lastValues  The values to be sorted last.
+     * @param lastTiers   The tier number of each last value, or {@code null} if every value is its own tier.
+     */
+    private FirstLastComparator(Comparator<T> delegate, Object[] firstValues, int[] firstTiers, Object[] lastValues, int[] lastTiers) {
         this.delegate = Objects.requireNonNull(delegate, "Delegate comparator is <null>.");
-        this.compareFirst = compareFirst;
-        this.explicitValues = new ArrayList<>(explicitValues);
+        final Object[] explicitValues;
+        if (lastValues.length == 0) {
+            explicitValues = firstValues;
+        } else if (firstValues.length == 0) {
+            explicitValues = lastValues;
+        } else {
+            explicitValues = Arrays.copyOf(firstValues, firstValues.length + lastValues.length);
+            System.arraycopy(lastValues, 0, explicitValues, firstValues.length, lastValues.length);
+        }
+        this.ranks = new RankTable(explicitValues);
+        this.positions = ranks::rankOf;
+
+        final int[] slots = new int[ranks.size()];
+        Arrays.fill(slots, -1);
+        int other = -1, count = 0;
+        for (int i = 0, previousTier = -1; i < explicitValues.length; i++) {
+            if (i == firstValues.length) {
+                other = count++;
+                previousTier = -1;
+            }
+            final int position = ranks.rankOf(explicitValues[i]);
+            if (slots[position] >= 0) continue; // sorted in the tier of its first occurrence
+            final int tier = i < firstValues.length
+                    ? firstTiers == null ? i : firstTiers[i]
+                    : lastTiers == null ? i - firstValues.length : lastTiers[i - firstValues.length];
+            if (tier != previousTier) count++;
+            previousTier = tier;
+            slots[position] = count - 1;
+        }
+        if (other < 0) other = count++;
+        this.otherSlot = other;
+        this.slotCount = count;
+
+        final boolean[] ordered = new boolean[count];
+        boolean hasTiers = false;
+        for (int position = 1; position < slots.length; position++) {
+            if (slots[position] == slots[position - 1]) hasTiers = ordered[slots[position]] = true;
+        }
+        this.positionSlots = hasTiers ? slots : null;
+        this.tiers = hasTiers ? ordered : null;
+        this.condition = null;
+        this.prefixes = null;
+        this.cacheRanks = false;
+    }
+
+    /**
+     * Create a comparator for values matching a condition, that are sorted first or last by the delegate.
+     *
+     * @param delegate     The main sorting delegate for all values.
+     * @param condition    The condition for values to be sorted first or last.
+     * @param compareFirst Whether the matching values are sorted first.
+     */
+    @SuppressWarnings("unchecked")
+    private FirstLastComparator(Comparator<T> delegate, Predicate<? super T> condition, boolean compareFirst) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate comparator is <null>.");
+        final Predicate<Object> test = (Predicate<Object>) Objects.requireNonNull(condition, "Condition is <null>.");
+        this.condition = test;
+        this.positions = value -> test.test(value) ? 0 : -1; // a single position, sorted first or last
+        this.ranks = new RankTable(NO_VALUES);
+        this.otherSlot = compareFirst ? 1 : 0;
+        this.slotCount = 2;
+        this.positionSlots = null;
+        this.tiers = new boolean[2];
+        this.tiers[compareFirst ? 0 : 1] = true;
+        this.prefixes = null;
+        this.cacheRanks = false;
+    }
+
+    /**
+     * Create a comparator for string values starting with ranked prefixes.
+     * <p>
+     * Every distinct prefix has its own slot, containing the values for which it is the longest matching prefix,
+     * ordered by the delegate.
+     *
+     * @param delegate   The main sorting delegate for all values.
+     * @param prefixes   The prefixes of values to be sorted first, followed by those to be sorted last.
+     * @param firstCount The number of prefixes of values to be sorted first.
+     */
+    private FirstLastComparator(Comparator<T> delegate, String[] prefixes, int firstCount) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate comparator is <null>.");
+        this.prefixes = new PrefixTrie(prefixes);
+        this.positions = this.prefixes::rankOf;
+        this.ranks = new RankTable(NO_VALUES);
+
+        final int[] slots = new int[this.prefixes.size()];
+        int other = -1, count = 0;
+        for (int i = 0, distinct = 0; i < prefixes.length; i++) {
+            if (i == firstCount) other = count++;
+            // a duplicate prefix is sorted at its first occurrence
+            if (this.prefixes.rankOf(prefixes[i]) == distinct) slots[distinct++] = count++;
+        }
+        if (other < 0) other = count++;
+        this.otherSlot = other;
+        this.slotCount = count;
+        this.positionSlots = slots;
+        this.tiers = new boolean[count];
+        Arrays.fill(tiers, true);
+        this.condition = null;
+        this.cacheRanks = false;
+    }
+
+    private FirstLastComparator(FirstLastComparator<T> comparator, boolean cacheRanks) {
+        this.delegate = comparator.delegate;
+        this.ranks = comparator.ranks;
+        this.positions = cacheRanks ? cachedPositions(comparator.positions) : comparator.positions;
+        this.otherSlot = comparator.otherSlot;
+        this.slotCount = comparator.slotCount;
+        this.positionSlots = comparator.positionSlots;
+        this.tiers = comparator.tiers;
+        this.condition = comparator.condition;
+        this.prefixes = comparator.prefixes;
+        this.cacheRanks = cacheRanks;
     }
 
     /**
@@ -58,8 +247,8 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      * @return A comparator sorting the given values first.
      */
     public static <T> Comparator<T> compareFirst(Comparator<T> delegate, Collection<? extends T> firstValues) {
-        return new FirstLastComparator<>(delegate, true,
-                Objects.requireNonNull(firstValues, "firstValues is <null>."));
+        return new FirstLastComparator<>(delegate,
+                Objects.requireNonNull(firstValues, "firstValues is <null>.").toArray(), NO_VALUES);
     }
 
     /**
@@ -71,8 +260,10 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      * @return A comparator sorting the given values first.
      */
     @SafeVarargs
+    @SuppressWarnings("varargs") // the values are only read
     public static <T> Comparator<T> compareFirst(Comparator<T> delegate, T... firstValues) {
-        return compareFirst(delegate, firstValues != null ? Arrays.asList(firstValues) : null);
+        return new FirstLastComparator<>(delegate,
+                Objects.requireNonNull(firstValues, "firstValues is <null>."), NO_VALUES);
     }
 
     /**
@@ -84,8 +275,8 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      * @return A comparator sorting the given values last.
      */
     public static <T> Comparator<T> compareLast(Comparator<T> delegate, Collection<? extends T> lastValues) {
-        return new FirstLastComparator<>(delegate, false,
-                Objects.requireNonNull(lastValues, "lastValues is <null>."));
+        return new FirstLastComparator<>(delegate,
+                NO_VALUES, Objects.requireNonNull(lastValues, "lastValues is <null>.").toArray());
     }
 
     /**
@@ -97,8 +288,543 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      * @return A comparator sorting the given values last.
      */
     @SafeVarargs
+    @SuppressWarnings("varargs") // the values are only read
     public static <T> Comparator<T> compareLast(Comparator<T> delegate, T... lastValues) {
-        return compareLast(delegate, lastValues != null ? Arrays.asList(lastValues) : null);
+        return new FirstLastComparator<>(delegate,
+                NO_VALUES, Objects.requireNonNull(lastValues, "lastValues is <null>."));
+    }
+
+    /**
+     * Sort all values matching a condition first, delegating main sorting to another comparator.
+     * <p>
+     * For example:
+     * <pre>{@code
+     * Comparator<String> comparator = FirstLastComparator.compareFirst(String.CASE_INSENSITIVE_ORDER, s -> s.startsWith("!"));
+     * }</pre>
+     * Both the matching values and the other values are sorted by the delegate.
+     * The {@code sort} methods in this class evaluate the condition only once for every element,
+     * instead of for every comparison.
+     *
+     * @param delegate  The main sorting delegate for all values.
+     * @param condition The condition for values to be sorted first.
+     * @param <T>       The type to be sorted.
+     * @return A comparator sorting the matching values first.
+     */
+    public static <T> Comparator<T> compareFirst(Comparator<T> delegate, Predicate<? super T> condition) {
+        return new FirstLastComparator<>(delegate, condition, true);
+    }
+
+    /**
+     * Sort all values matching a condition last, delegating main sorting to another comparator.
+     * <p>
+     * Both the matching values and the other values are sorted by the delegate.
+     * The {@code sort} methods in this class evaluate the condition only once for every element,
+     * instead of for every comparison.
+     *
+     * @param delegate  The main sorting delegate for all values.
+     * @param condition The condition for values to be sorted last.
+     * @param <T>       The type to be sorted.
+     * @return A comparator sorting the matching values last.
+     */
+    public static <T> Comparator<T> compareLast(Comparator<T> delegate, Predicate<? super T> condition) {
+        return new FirstLastComparator<>(delegate, condition, false);
+    }
+
+    /**
+     * Sort all strings starting with one of the given prefixes first, delegating main sorting to another comparator.
+     * <p>
+     * For example:
+     * <pre>{@code
+     * Comparator<String> comparator = FirstLastComparator.compareFirstPrefixes(String.CASE_INSENSITIVE_ORDER, "sys.", "internal.");
+     * }</pre>
+     * The strings starting with the same prefix are sorted by the delegate, after the strings of the previous prefixes.
+     * A string starting with more than one prefix is sorted with its longest prefix.
+     * The prefixes are matched with a trie, so looking up a string takes time proportional to its length,
+     * regardless of the number of prefixes.
+     *
+     * @param delegate      The main sorting delegate for all strings.
+     * @param firstPrefixes The prefixes of the strings to be sorted first.
+     * @return A comparator sorting the strings starting with the given prefixes first.
+     */
+    public static Comparator<String> compareFirstPrefixes(Comparator<String> delegate, String... firstPrefixes) {
+        return new FirstLastComparator<>(delegate,
+                Objects.requireNonNull(firstPrefixes, "firstPrefixes is <null>."), firstPrefixes.length);
+    }
+
+    /**
+     * Sort all strings starting with one of the given prefixes last, delegating main sorting to another comparator.
+     * <p>
+     * The strings starting with the same prefix are sorted by the delegate, after the strings of the previous prefixes.
+     * A string starting with more than one prefix is sorted with its longest prefix.
+     *
+     * @param delegate     The main sorting delegate for all strings.
+     * @param lastPrefixes The prefixes of the strings to be sorted last.
+     * @return A comparator sorting the strings starting with the given prefixes last.
+     */
+    public static Comparator<String> compareLastPrefixes(Comparator<String> delegate, String... lastPrefixes) {
+        return new FirstLastComparator<>(delegate,
+                Objects.requireNonNull(lastPrefixes, "lastPrefixes is <null>."), 0);
+    }
+
+    /**
+     * Sort all strings starting with one collection of prefixes first and another collection of prefixes last,
+     * delegating main sorting to another comparator.
+     * <p>
+     * A string starting with more than one prefix is sorted with its longest prefix.
+     * A prefix that is specified both first and last is sorted first.
+     *
+     * @param delegate      The main sorting delegate for all strings.
+     * @param firstPrefixes The prefixes of the strings to be sorted first.
+     * @param lastPrefixes  The prefixes of the strings to be sorted last.
+     * @return A comparator sorting the strings starting with the given prefixes first and last.
+     */
+    public static Comparator<String> compareFirstLastPrefixes(Comparator<String> delegate,
+                                                              Collection<String> firstPrefixes,
+                                                              Collection<String> lastPrefixes) {
+        final String[] first = Objects.requireNonNull(firstPrefixes, "firstPrefixes is <null>.").toArray(new String[0]);
+        final String[] last = Objects.requireNonNull(lastPrefixes, "lastPrefixes is <null>.").toArray(new String[0]);
+        final String[] prefixes = Arrays.copyOf(first, first.length + last.length);
+        System.arraycopy(last, 0, prefixes, first.length, last.length);
+        return new FirstLastComparator<>(delegate, prefixes, first.length);
+    }
+
+    /**
+     * Sort a limited collection of values first and another collection of values last,
+     * delegating main sorting to another comparator.
+     * <p>
+     * This is equivalent to nesting a {@code compareFirst} and a {@code compareLast} comparator,
+     * but each compared object is looked up only once.
+     * A value that is specified both first and last is sorted first.
+     *
+     * @param delegate    The main sorting delegate for all 'other' values.
+     * @param firstValues The values to be sorted first.
+     * @param lastValues  The values to be sorted last.
+     * @param <T>         The type to be sorted.
+     * @return A comparator sorting the given values first and last.
+     */
+    public static <T> Comparator<T> compareFirstLast(Comparator<T> delegate,
+                                                     Collection<? extends T> firstValues,
+                                                     Collection<? extends T> lastValues) {
+        return new FirstLastComparator<>(delegate,
+                Objects.requireNonNull(firstValues, "firstValues is <null>.").toArray(),
+                Objects.requireNonNull(lastValues, "lastValues is <null>.").toArray());
+    }
+
+    /**
+     * Create a builder for a comparator sorting certain values first or last.
+     * <p>
+     * Comparators created by the builder are interned: building a comparator with the same delegate and
+     * explicit values as a recently built comparator returns the already existing, immutable, instance.
+     * This makes it cheap to build comparators for every request.
+     * Interning only works when the same delegate instance (or an equal one) is reused:
+     * a lambda or method reference that is created for each request never equals an earlier one.
+     * The interned comparators are softly referenced and bounded in number,
+     * so the cache does not keep comparators or their delegates alive on its own.
+     * <p>
+     * For example:
+     * <pre>{@code
+     * Comparator<String> comparator = FirstLastComparator.builder(String.CASE_INSENSITIVE_ORDER)
+     *     .last("Always last")
+     *     .build();
+     * }</pre>
+     * <p>
+     * The builder can also sort tiers of values, that are sorted among themselves by the delegate comparator:
+     * <pre>{@code
+     * Comparator<Tenant> comparator = FirstLastComparator.builder(Comparator.comparing(Tenant::getName))
+     *     .firstTier(vipTenants)
+     *     .firstTier(partners)
+     *     .lastTier(suspendedTenants)
+     *     .build();
+     * }</pre>
+     * Each compared value is still looked up only once.
+     *
+     * @param delegate The main sorting delegate for all 'other' values.
+     * @param <T>      The type to be sorted.
+     * @return A new builder.
+     */
+    public static <T> Builder<T> builder(Comparator<T> delegate) {
+        return new Builder<>(Objects.requireNonNull(delegate, "Delegate comparator is <null>."));
+    }
+
+    /**
+     * Sort a limited number of enum constants first, delegating main sorting to another comparator.
+     * <p>
+     * The order of all enum constants is computed once, resulting in a sort key for every ordinal.
+     * Comparing two constants then takes two array loads and a subtraction,
+     * without calling {@code hashCode}, {@code equals} or the delegate comparator.
+     * The returned comparator does not support {@code null} values.
+     *
+     * @param enumType    The enum type to be sorted.
+     * @param delegate    The main sorting delegate for all 'other' constants.
+     * @param firstValues The constants to be sorted first.
+     * @param <E>         The enum type to be sorted.
+     * @return A comparator sorting the given constants first.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the values are only read
+    public static <E extends Enum<E>> Comparator<E> forEnum(Class<E> enumType, Comparator<E> delegate, E... firstValues) {
+        return new EnumKeyComparator<>(Objects.requireNonNull(enumType, "Enum type is <null>."),
+                compareFirst(delegate, firstValues));
+    }
+
+    /**
+     * Precompute the order of a finite domain of values.
+     * <p>
+     * For example:
+     * <pre>{@code
+     * PrecomputedComparator<String> currencies = FirstLastComparator.precompute(Currency.getAvailableCurrencies()
+     *     .stream().map(Currency::getCurrencyCode).collect(toList()),
+     *     FirstLastComparator.compareFirst(Comparator.naturalOrder(), "EUR", "USD"));
+     * }</pre>
+     * The returned comparator looks up each compared value once and never calls the given comparator.
+     * It also provides the {@link PrecomputedComparator#sortKey(Object) sort key} of each value,
+     * that can for example be stored to sort in a database.
+     * Values outside the domain are not supported.
+     *
+     * @param domain     All values that can be compared.
+     * @param comparator The comparator defining the order of the domain.
+     * @param <T>        The type to be sorted.
+     * @return A comparator with precomputed sort keys for all values in the domain.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PrecomputedComparator<T> precompute(Collection<? extends T> domain, Comparator<? super T> comparator) {
+        return new PrecomputedComparator<>(Objects.requireNonNull(domain, "Domain is <null>.").toArray(),
+                (Comparator<Object>) Objects.requireNonNull(comparator, "Comparator is <null>."));
+    }
+
+    /**
+     * Sort values first and last that can be replaced while the comparator is in use.
+     * <p>
+     * For example, to reload the values from a file whenever it changes:
+     * <pre>{@code
+     * LiveFirstLastComparator<String> comparator = FirstLastComparator.live(naturalOrder(), emptyList(), emptyList());
+     * Closeable watch = comparator.watch(Paths.get("vip-customers.txt"), Function.identity());
+     * }</pre>
+     * Each comparison reads the current values without locking.
+     * The {@code sort} methods in this class use the same values for the whole sort.
+     *
+     * @param delegate    The main sorting delegate for all 'other' values.
+     * @param firstValues The initial values to be sorted first.
+     * @param lastValues  The initial values to be sorted last.
+     * @param <T>         The type to be sorted.
+     * @return A comparator sorting the current values first and last.
+     */
+    public static <T> LiveFirstLastComparator<T> live(Comparator<T> delegate,
+                                                      Collection<? extends T> firstValues,
+                                                      Collection<? extends T> lastValues) {
+        return new LiveFirstLastComparator<>(delegate, firstValues, lastValues);
+    }
+
+    /**
+     * Normalized, fixed-width prefix of the sort key of values.
+     * <p>
+     * If the prefix of a value is less than the prefix of another value, the comparator sorts it before the other value.
+     * Only values with equal prefixes need to be compared by the comparator.
+     * This makes it possible to sort on primitive {@code long} keys, for example in a radix sort,
+     * an off-heap sorter or in a database.
+     * <p>
+     * The most significant bits of the prefix contain the rank of the explicit values
+     * (and the position of all 'other' values in between).
+     * If the delegate comparator is the natural or reverse order of numbers, characters, booleans or strings,
+     * the remaining bits contain the most significant bits of the value for all 'other' values.
+     * Strings are represented by their first four characters.
+     *
+     * @param comparator The comparator to derive the prefix from.
+     * @param <T>        The type to be sorted.
+     * @return The function returning the sort key prefix of a value.
+     * @see #sortKeyPrefix(Comparator, ToLongFunction)
+     */
+    public static <T> ToLongFunction<T> sortKeyPrefix(Comparator<? super T> comparator) {
+        return new SortKeyPrefix<>(Objects.requireNonNull(comparator, "Comparator is <null>."), null);
+    }
+
+    /**
+     * Normalized, fixed-width prefix of the sort key of values, using a custom prefix for the delegate order.
+     * <p>
+     * Just like {@link #sortKeyPrefix(Comparator)}, but the remaining bits of the prefix for all 'other' values
+     * are taken from the most significant bits of the given {@code delegatePrefix}.
+     * When {@link Long#compareUnsigned(long, long) compared unsigned}, the delegate prefix of a value must be
+     * less than that of another value only if the delegate comparator sorts it before the other value.
+     *
+     * @param comparator     The comparator to derive the prefix from.
+     * @param delegatePrefix The prefix of values, consistent with the delegate order.
+     * @param <T>            The type to be sorted.
+     * @return The function returning the sort key prefix of a value.
+     */
+    public static <T> ToLongFunction<T> sortKeyPrefix(Comparator<? super T> comparator, ToLongFunction<? super T> delegatePrefix) {
+        return new SortKeyPrefix<>(Objects.requireNonNull(comparator, "Comparator is <null>."),
+                Objects.requireNonNull(delegatePrefix, "Delegate prefix is <null>."));
+    }
+
+    /**
+     * Compare values by a sort key, typically sorting certain keys first or last.
+     * <p>
+     * For example:
+     * <pre>{@code
+     * Comparator<Order> byStatus = FirstLastComparator.comparing(Order::getStatus,
+     *     FirstLastComparator.compareLast(Comparator.naturalOrder(), Status.CANCELLED));
+     * }</pre>
+     * This is similar to {@link Comparator#comparing(Function, Comparator)}, but the returned comparator is
+     * recognized by the {@code sort} methods of this class.
+     * These extract and classify the key of each element only once instead of for every comparison.
+     *
+     * @param keyExtractor  The function to extract the sort key from a value.
+     * @param keyComparator The comparator for the extracted keys.
+     * @param <T>           The type to be sorted.
+     * @param <K>           The type of the sort key.
+     * @return A comparator comparing values by their extracted key.
+     */
+    public static <T, K> Comparator<T> comparing(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+        return new KeyExtractingComparator<>(
+                Objects.requireNonNull(keyExtractor, "Key extractor is <null>."),
+                Objects.requireNonNull(keyComparator, "Key comparator is <null>."));
+    }
+
+    /**
+     * Cache the rank of {@link RankAware} objects in the objects themselves.
+     * <p>
+     * Classifying an object normally requires a hash lookup in the explicit values,
+     * calling {@code hashCode} and possibly {@code equals} of the compared object.
+     * For objects with expensive {@code equals} and {@code hashCode} methods, such as composite keys,
+     * this lookup can dominate the comparison. The returned comparator stores the rank of every compared
+     * {@code RankAware} object in its {@link RankCache}, so each instance is looked up only once,
+     * regardless of how often it is compared: by {@link List#sort(Comparator)}, a {@link java.util.TreeMap},
+     * a {@link java.util.PriorityQueue} or the sort methods in this class.
+     * Objects that are not {@code RankAware} are looked up on every comparison, as usual.
+     *
+     * @param comparator A comparator obtained from {@code FirstLastComparator}.
+     * @param <T>        The type to be sorted.
+     * @return A comparator with the same order, caching the rank of {@code RankAware} objects.
+     * @throws IllegalArgumentException if the comparator was not obtained from {@code FirstLastComparator}.
+     */
+    public static <T> Comparator<T> withRankCache(Comparator<T> comparator) {
+        if (!(comparator instanceof FirstLastComparator)) {
+            throw new IllegalArgumentException("Not a FirstLastComparator: " + comparator);
+        }
+        final FirstLastComparator<T> firstLastComparator = (FirstLastComparator<T>) comparator;
+        return firstLastComparator.cacheRanks ? comparator : new FirstLastComparator<>(firstLastComparator, true);
+    }
+
+    /**
+     * Comparator that considers all values equal, leaving them in encounter order when used by a stable sort.
+     * <p>
+     * This can be used as delegate to move values first or last without sorting all other values.
+     * The sort methods in this class recognize this comparator and will not sort the 'other' values at all.
+     * Also, when sorting values last, {@link #sorted(Stream, Comparator)} passes all 'other' values through
+     * as soon as they are encountered.
+     *
+     * @param <T> The type to be sorted.
+     * @return A comparator considering all values equal.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> encounterOrder() {
+        return (Comparator<T>) EncounterOrder.INSTANCE;
+    }
+
+    /**
+     * Sort the specified list according to the given comparator.
+     * <p>
+     * If the comparator was obtained from {@code FirstLastComparator}, each element is classified exactly once.
+     * The explicit values are then placed by their rank, without any comparisons,
+     * and only the 'other' values are sorted by the delegate comparator.
+     * For comparators obtained from {@link #comparing(Function, Comparator)}, the key of each element
+     * is also extracted only once.<br>
+     * For any other comparator, this is equivalent to {@link List#sort(Comparator)}.
+     * <p>
+     * Just like {@code List.sort}, this sort is stable.
+     *
+     * @param list       The list to be sorted.
+     * @param comparator The comparator determining the order of the list.
+     * @param <T>        The type of the list elements.
+     * @see List#sort(Comparator)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, Comparator<? super T> comparator) {
+        Objects.requireNonNull(list, "List to sort is <null>.");
+        if (hasSlots(comparator)) {
+            final Object[] values = list.toArray();
+            sortValues(values, comparator, false);
+            final ListIterator<T> iterator = list.listIterator();
+            for (Object value : values) {
+                iterator.next();
+                iterator.set((T) value);
+            }
+        } else {
+            list.sort(comparator);
+        }
+    }
+
+    /**
+     * Sort the specified array according to the given comparator.
+     * <p>
+     * If the comparator was obtained from {@code FirstLastComparator}, each element is classified exactly once.
+     * The explicit values are then placed by their rank, without any comparisons,
+     * and only the 'other' values are sorted by the delegate comparator.
+     * For comparators obtained from {@link #comparing(Function, Comparator)}, the key of each element
+     * is also extracted only once.<br>
+     * For any other comparator, this is equivalent to {@link Arrays#sort(Object[], Comparator)}.
+     * <p>
+     * Just like {@code Arrays.sort}, this sort is stable.
+     *
+     * @param array      The array to be sorted.
+     * @param comparator The comparator determining the order of the array.
+     * @param <T>        The type of the array elements.
+     * @see Arrays#sort(Object[], Comparator)
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        Objects.requireNonNull(array, "Array to sort is <null>.");
+        sortValues(array, comparator, false);
+    }
+
+    /**
+     * Sort the specified array according to the given comparator, using a radix sort on the
+     * {@linkplain #sortKeyPrefix(Comparator) sort key prefix} of each element.
+     * <p>
+     * Elements are only compared with the comparator if their sort key prefixes are equal.
+     * This is beneficial if the prefix distinguishes most elements, for example when most elements are explicit values
+     * or when the delegate order is the natural or reverse order of numbers or short strings.
+     * <p>
+     * Just like {@code Arrays.sort}, this sort is stable.
+     *
+     * @param array      The array to be sorted.
+     * @param comparator The comparator determining the order of the array.
+     * @param <T>        The type of the array elements.
+     */
+    public static <T> void radixSort(T[] array, Comparator<? super T> comparator) {
+        Objects.requireNonNull(array, "Array to sort is <null>.");
+        final Comparator<? super T> snapshot = LiveFirstLastComparator.snapshotOf(comparator);
+        new SortKeyPrefix<T>(snapshot, null).sort(array, snapshot);
+    }
+
+    /**
+     * Sort the specified array according to the given comparator, using parallel sub-tasks for large arrays.
+     * <p>
+     * If the comparator was obtained from {@code FirstLastComparator}, the elements are classified in parallel,
+     * each element exactly once. The explicit values are then placed by their rank, without any comparisons,
+     * and only the 'other' values are sorted in parallel by the delegate comparator.
+     * For comparators obtained from {@link #comparing(Function, Comparator)}, the keys are also
+     * extracted in parallel, each only once.<br>
+     * For any other comparator, this is equivalent to {@link Arrays#parallelSort(Object[], Comparator)}.
+     * <p>
+     * Just like {@code Arrays.parallelSort}, this sort is stable.
+     * Parallel tasks are executed in the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+     *
+     * @param array      The array to be sorted.
+     * @param comparator The comparator determining the order of the array.
+     * @param <T>        The type of the array elements.
+     * @see Arrays#parallelSort(Object[], Comparator)
+     */
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+        Objects.requireNonNull(array, "Array to sort is <null>.");
+        sortValues(array, comparator, true);
+    }
+
+    /**
+     * Determine the first {@code k} values in the order of the given comparator, without sorting all values.
+     * <p>
+     * Only the best {@code k} values are retained in a bounded heap, requiring {@code O(n log k)} time and
+     * {@code O(k)} memory instead of sorting everything.
+     * If the comparator was obtained from {@code FirstLastComparator}, each value is classified exactly once.
+     * Explicit values and 'other' values are never compared by the delegate comparator,
+     * so once {@code k} values sorted first are found, the remaining 'other' values are rejected cheaply.
+     * Iteration stops early if no remaining value can be among the first {@code k} values anymore.
+     * <p>
+     * The result is the same as the first {@code k} values of a stable sort.
+     *
+     * @param values     The values to select from.
+     * @param k          The maximum number of values to return.
+     * @param comparator The comparator determining the order of the values.
+     * @param <T>        The type of the values.
+     * @return A list with the first {@code k} values in sorted order, or all values if there are fewer than {@code k}.
+     * @see #topK(int, Comparator)
+     */
+    public static <T> List<T> topK(Iterable<? extends T> values, int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(values, "Values are <null>.");
+        final TopK<T> topK = new TopK<>(k, comparator);
+        for (Iterator<? extends T> iterator = values.iterator(); !topK.isComplete() && iterator.hasNext(); ) {
+            topK.add(iterator.next());
+        }
+        return topK.toList();
+    }
+
+    /**
+     * Collector for the first {@code k} values in the order of the given comparator, without sorting all values.
+     * <p>
+     * The collector retains only the best {@code k} values, requiring {@code O(n log k)} time and {@code O(k)} memory.
+     * The result is the same as the first {@code k} values of a stable sort.
+     *
+     * @param k          The maximum number of values to collect.
+     * @param comparator The comparator determining the order of the values.
+     * @param <T>        The type of the values.
+     * @return A collector of the first {@code k} values in sorted order.
+     * @see #topK(Iterable, int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        if (k < 0) throw new IllegalArgumentException("Number of values to retain is negative: " + k);
+        return Collector.of(() -> new TopK<T>(k, comparator), TopK::add, TopK::combine, TopK::toList);
+    }
+
+    /**
+     * Collector for all values in the order of the given comparator.
+     * <p>
+     * If the comparator was obtained from {@code FirstLastComparator}, each value is classified exactly once
+     * and collected in a bucket per explicit value or a bucket for all 'other' values.
+     * Only the 'other' values are buffered to be sorted by the delegate comparator.
+     * <p>
+     * The result is the same as a stable sort of all values.
+     *
+     * @param comparator The comparator determining the order of the values.
+     * @param <T>        The type of the values.
+     * @return A collector of all values in sorted order.
+     * @see #sorted(Stream, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> toSortedList(Comparator<? super T> comparator) {
+        return Collector.of(() -> new SlotBuckets<T>(comparator), SlotBuckets::add, SlotBuckets::combine, SlotBuckets::toList);
+    }
+
+    /**
+     * Lazily sort a stream in the order of the given comparator.
+     * <p>
+     * Unlike {@link Stream#sorted(Comparator)}, only the values that actually need to be ordered are buffered
+     * and sorted. Values in the very first position of the order that need no sorting among themselves
+     * are passed through as soon as they are encountered.
+     * This is the case for occurrences of the first explicit value when sorting values first,
+     * or for all other values when sorting values last after the {@link #encounterOrder()}.
+     * <p>
+     * The result is the same as a stable sort of all values.
+     *
+     * @param stream     The stream to sort.
+     * @param comparator The comparator determining the order of the values.
+     * @param <T>        The type of the values.
+     * @return A stream returning the values in sorted order.
+     * @see #toSortedList(Comparator)
+     */
+    public static <T> Stream<T> sorted(Stream<T> stream, Comparator<? super T> comparator) {
+        Objects.requireNonNull(stream, "Stream to sort is <null>.");
+        return StreamSupport.stream(() -> new SlotSortingSpliterator<>(stream.spliterator(), comparator),
+                Spliterator.ORDERED, stream.isParallel()).onClose(stream::close);
+    }
+
+    /**
+     * Merge sources that are each sorted by the delegate order into a single sorted iterator.
+     * <p>
+     * For example, when merging shards that are each sorted by the delegate comparator, with certain values sorted first.
+     * Explicit values are taken out of the sources as they are encountered.
+     * All other values are merged with a heap, comparing only their keys by the delegate comparator.
+     * Values that compare equal are returned in the order of their sources.
+     * <p>
+     * The merge is lazy if no values are sorted first. Otherwise, the sources must be exhausted
+     * before the first value can be returned, and the merged 'other' values are buffered.
+     * For any other comparator this is a lazy merge of sources sorted by that comparator.
+     *
+     * @param sources    The sources, each sorted by the delegate order of the comparator.
+     * @param comparator The comparator determining the order of the merged values.
+     * @param <T>        The type of the merged values.
+     * @return An iterator over all values of the sources in the order of the comparator.
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        Objects.requireNonNull(sources, "Sources are <null>.");
+        return new SlotMergeIterator<>(sources, comparator);
     }
 
     /**
@@ -106,7 +832,7 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      * <p>
      * Check whether the compared objects are in the limited set of specified values.
      * If this is the case, the corresponding object(s) is sorted either first or last,
-     * depending on the used factory method ({@code compareFirst} vs. {@code compareLast}).<br>
+     * depending on whether it was specified as first or as last value.<br>
      * If neither of the compared objects are explicitly sorted first or last,
      * the specified {@code delegate} Comparator is used.
      *
@@ -117,16 +843,455 @@ public final class FirstLastComparator<T> implements Comparator<T>, Serializable
      */
     @Override
     public int compare(T o1, T o2) {
-        final int i1 = explicitValues.indexOf(o1);
-        final int i2 = explicitValues.indexOf(o2);
+        final int r1 = lookupRank(o1);
+        final int r2 = lookupRank(o2);
+
+        if (r1 != r2) return r1 < r2 ? -1 : 1;
+        // r1 == r2, both are the same explicit value, in the same tier, or neither of them is an explicit value.
+        return r1 == 0 || (tiers != null && tiers[r1 + otherSlot]) ? delegate.compare(o1, o2) : 0;
+    }
+
+    /**
+     * Look up the rank of a value relative to the 'other' values.
+     *
+     * @param value The value to look up.
+     * @return The negative rank of a value sorted first, the positive rank of a value sorted last,
+     * or {@code 0} if it is not one of the explicit values.
+     */
+    private int lookupRank(Object value) {
+        final int position = positions.applyAsInt(value);
+        if (position < 0) return 0;
+        if (positionSlots != null) return positionSlots[position] - otherSlot;
+        return position < otherSlot ? position - otherSlot : position - otherSlot + 1;
+    }
+
+    /**
+     * @return The comparator for all 'other' values.
+     */
+    Comparator<T> delegate() {
+        return delegate;
+    }
+
+    /**
+     * The number of 'slots' in the order imposed by this comparator.
+     * <p>
+     * Every explicit value occupies its own slot, except for values in the same tier that share a slot.
+     * All other values share a single slot that is ordered by the delegate comparator.
+     * The slots of the first values come before the shared slot, the slots of the last values after it.
+     *
+     * @return The number of slots.
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Determine the slot of a value, the explicit values in their given order either before or after
+     * the slot for all other values.
+     *
+     * @param value The value to classify.
+     * @return The slot of the value, between {@code 0} and {@link #slotCount()} (exclusive).
+     */
+    int slotOf(Object value) {
+        return lookupRank(value) + otherSlot;
+    }
+
+    /**
+     * Look up positions through the {@linkplain RankAware#rankCache() rank cache} of {@link RankAware} values.
+     *
+     * @param positions The position lookup, that also identifies the cached positions of this comparator.
+     * @return The caching position lookup.
+     */
+    private static ToIntFunction<Object> cachedPositions(ToIntFunction<Object> positions) {
+        return value -> value instanceof RankAware
+                ? ((RankAware) value).rankCache().positionOf(value, positions)
+                : positions.applyAsInt(value);
+    }
+
+    /**
+     * @return The slot shared by all 'other' values, after the slots of the first values.
+     */
+    int otherSlot() {
+        return otherSlot;
+    }
+
+    /**
+     * Whether values within a slot must be ordered by the delegate comparator.
+     * <p>
+     * This is the case for the slot containing all 'other' values and the slots of tiers,
+     * unless the delegate is the {@link #encounterOrder()}.
+     * The values of the slot of a single explicit value are all equal to each other.
+     *
+     * @param slot The slot to check.
+     * @return {@code true} if the values in the slot need to be sorted by the delegate, otherwise {@code false}.
+     */
+    boolean isOrderedSlot(int slot) {
+        return (slot == otherSlot || (tiers != null && tiers[slot])) && !isEncounterOrder(delegate);
+    }
+
+    /**
+     * @param comparator The comparator to check.
+     * @return Whether the comparator is the {@link #encounterOrder()} comparator.
+     */
+    static boolean isEncounterOrder(Comparator<?> comparator) {
+        return comparator == EncounterOrder.INSTANCE;
+    }
+
+    /**
+     * Serialize the comparator by its definition instead of its lookup structures.
+     *
+     * @return The serialized form, that recreates the comparator when it is deserialized.
+     */
+    private Object writeReplace() {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("FirstLastComparator must be deserialized from its serialized form.");
+    }
+
+    /**
+     * @param comparator The comparator to check.
+     * @return Whether the comparator was obtained from this class and can be sorted by its slots.
+     */
+    private static boolean hasSlots(Comparator<?> comparator) {
+        return comparator instanceof FirstLastComparator
+                || comparator instanceof KeyExtractingComparator
+                || comparator instanceof LiveFirstLastComparator;
+    }
+
+    /**
+     * Sort values, recognizing the comparators created by this class.
+     *
+     * @param values     The values to sort in-place.
+     * @param comparator The comparator determining the order of the values.
+     * @param parallel   Whether to use parallel sub-tasks.
+     */
+    @SuppressWarnings("unchecked")
+    private static void sortValues(Object[] values, Comparator<?> comparator, boolean parallel) {
+        if (hasSlots(comparator)) {
+            SlotOrder.of(comparator).sort(values, parallel);
+        } else if (parallel) {
+            Arrays.parallelSort(values, (Comparator<Object>) comparator);
+        } else {
+            Arrays.sort(values, (Comparator<Object>) comparator);
+        }
+    }
+
+    /**
+     * Comparator considering all values equal.
+     *
+     * @see #encounterOrder()
+     */
+    private enum EncounterOrder implements Comparator<Object> {
+        INSTANCE;
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            return 0;
+        }
+    }
+
+    /**
+     * Builder for interned comparators, sorting certain values first or last.
+     *
+     * @param <T> The type to be sorted.
+     * @see #builder(Comparator)
+     */
+    public static final class Builder<T> {
+        /**
+         * Maximum number of interned comparators, the least recently built comparator is evicted beyond this size.
+         */
+        private static final int MAX_INTERNED = 256;
+        /**
+         * Interned comparators by definition, in least recently built order.
+         * The comparators are softly referenced, so neither they nor their delegates are kept alive by the cache alone;
+         * entries of collected comparators are purged through the reference queue.
+         * Guarded by synchronizing on the map itself.
+         */
+        private static final Map<Definition, Interned> INTERNED = new LinkedHashMap<Definition, Interned>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Definition, Interned> eldest) {
+                return size() > MAX_INTERNED;
+            }
+        };
+        private static final ReferenceQueue<FirstLastComparator<?>> COLLECTED = new ReferenceQueue<>();
+
+        private final Comparator<T> delegate;
+        private Object[] firstValues = NO_VALUES;
+        private int[] firstTiers = new int[0];
+        private Object[] lastValues = NO_VALUES;
+        private int[] lastTiers = new int[0];
+        private int tierCount;
+
+        private Builder(Comparator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Sort one or more values first, after any previously added first values.
+         *
+         * @param firstValues The values to be sorted first.
+         * @return This builder.
+         */
+        @SafeVarargs
+        @SuppressWarnings("varargs") // the values are only read
+        public final Builder<T> first(T... firstValues) {
+            return addFirst(Objects.requireNonNull(firstValues, "firstValues is <null>."), false);
+        }
+
+        /**
+         * Sort a collection of values first, after any previously added first values.
+         *
+         * @param firstValues The values to be sorted first.
+         * @return This builder.
+         */
+        public Builder<T> first(Collection<? extends T> firstValues) {
+            return addFirst(Objects.requireNonNull(firstValues, "firstValues is <null>.").toArray(), false);
+        }
+
+        /**
+         * Sort a tier of values first, after any previously added first values.
+         * <p>
+         * The values within the tier are sorted by the delegate comparator.
+         *
+         * @param tierValues The values of the tier.
+         * @return This builder.
+         */
+        @SafeVarargs
+        @SuppressWarnings("varargs") // the values are only read
+        public final Builder<T> firstTier(T... tierValues) {
+            return addFirst(Objects.requireNonNull(tierValues, "tierValues is <null>."), true);
+        }
+
+        /**
+         * Sort a tier of values first, after any previously added first values.
+         * <p>
+         * The values within the tier are sorted by the delegate comparator.
+         *
+         * @param tierValues The values of the tier.
+         * @return This builder.
+         */
+        public Builder<T> firstTier(Collection<? extends T> tierValues) {
+            return addFirst(Objects.requireNonNull(tierValues, "tierValues is <null>.").toArray(), true);
+        }
+
+        /**
+         * Sort one or more values last, after any previously added last values.
+         *
+         * @param lastValues The values to be sorted last.
+         * @return This builder.
+         */
+        @SafeVarargs
+        @SuppressWarnings("varargs") // the values are only read
+        public final Builder<T> last(T... lastValues) {
+            return addLast(Objects.requireNonNull(lastValues, "lastValues is <null>."), false);
+        }
+
+        /**
+         * Sort a collection of values last, after any previously added last values.
+         *
+         * @param lastValues The values to be sorted last.
+         * @return This builder.
+         */
+        public Builder<T> last(Collection<? extends T> lastValues) {
+            return addLast(Objects.requireNonNull(lastValues, "lastValues is <null>.").toArray(), false);
+        }
+
+        /**
+         * Sort a tier of values last, after any previously added last values.
+         * <p>
+         * The values within the tier are sorted by the delegate comparator.
+         *
+         * @param tierValues The values of the tier.
+         * @return This builder.
+         */
+        @SafeVarargs
+        @SuppressWarnings("varargs") // the values are only read
+        public final Builder<T> lastTier(T... tierValues) {
+            return addLast(Objects.requireNonNull(tierValues, "tierValues is <null>."), true);
+        }
+
+        /**
+         * Sort a tier of values last, after any previously added last values.
+         * <p>
+         * The values within the tier are sorted by the delegate comparator.
+         *
+         * @param tierValues The values of the tier.
+         * @return This builder.
+         */
+        public Builder<T> lastTier(Collection<? extends T> tierValues) {
+            return addLast(Objects.requireNonNull(tierValues, "tierValues is <null>.").toArray(), true);
+        }
+
+        private Builder<T> addFirst(Object[] values, boolean tier) {
+            firstTiers = appendTiers(firstTiers, values.length, tier);
+            firstValues = append(firstValues, values);
+            return this;
+        }
+
+        private Builder<T> addLast(Object[] values, boolean tier) {
+            lastTiers = appendTiers(lastTiers, values.length, tier);
+            lastValues = append(lastValues, values);
+            return this;
+        }
+
+        /**
+         * Build the comparator, or return a recently built comparator with the same delegate and values.
+         * <p>
+         * A value that is added more than once is sorted at its first occurrence,
+         * so a value that is added both first and last is sorted first.
+         *
+         * @return The comparator sorting the added values first and/or last.
+         */
+        @SuppressWarnings("unchecked")
+        public Comparator<T> build() {
+            final Definition definition = new Definition(delegate, firstValues, firstTiers, lastValues, lastTiers);
+            synchronized (INTERNED) {
+                purgeCollected();
+                final Interned interned = INTERNED.get(definition);
+                final FirstLastComparator<?> existing = interned == null ? null : interned.get();
+                if (existing != null) return (Comparator<T>) existing;
+            }
+            final FirstLastComparator<T> comparator = new FirstLastComparator<>(delegate, firstValues, firstTiers, lastValues, lastTiers);
+            final Definition copy = new Definition(delegate, firstValues.clone(), firstTiers, lastValues.clone(), lastTiers);
+            synchronized (INTERNED) {
+                final Interned interned = INTERNED.get(copy);
+                final FirstLastComparator<?> existing = interned == null ? null : interned.get();
+                if (existing != null) return (Comparator<T>) existing;
+                INTERNED.put(copy, new Interned(copy, comparator));
+            }
+            return comparator;
+        }
+
+        /**
+         * Remove the entries of comparators that were garbage collected. Must be called while holding the lock.
+         */
+        private static void purgeCollected() {
+            for (Reference<?> collected = COLLECTED.poll(); collected != null; collected = COLLECTED.poll()) {
+                INTERNED.remove(((Interned) collected).definition, collected);
+            }
+        }
+
+        private static Object[] append(Object[] values, Object[] additionalValues) {
+            if (values.length == 0) return additionalValues;
+            if (additionalValues.length == 0) return values;
+            final Object[] combined = Arrays.copyOf(values, values.length + additionalValues.length);
+            System.arraycopy(additionalValues, 0, combined, values.length, additionalValues.length);
+            return combined;
+        }
+
+        /**
+         * Append the tier numbers for additional values, either all in one new tier or each in its own tier.
+         */
+        private int[] appendTiers(int[] tierNumbers, int count, boolean sameTier) {
+            final int[] combined = Arrays.copyOf(tierNumbers, tierNumbers.length + count);
+            for (int i = tierNumbers.length; i < combined.length; i++) {
+                combined[i] = sameTier ? tierCount : tierCount++;
+            }
+            if (sameTier) tierCount++;
+            return combined;
+        }
+    }
+
+    /**
+     * Soft reference to an interned comparator, remembering its definition to purge the entry once collected.
+     */
+    private static final class Interned extends SoftReference<FirstLastComparator<?>> {
+        private final Definition definition;
+
+        private Interned(Definition definition, FirstLastComparator<?> comparator) {
+            super(comparator, Builder.COLLECTED);
+            this.definition = definition;
+        }
+    }
+
+    /**
+     * The definition of a comparator, used as key for interned comparators.
+     */
+    private static final class Definition {
+        private final Comparator<?> delegate;
+        private final Object[] firstValues;
+        private final int[] firstTiers;
+        private final Object[] lastValues;
+        private final int[] lastTiers;
+
+        private Definition(Comparator<?> delegate, Object[] firstValues, int[] firstTiers, Object[] lastValues, int[] lastTiers) {
+            this.delegate = delegate;
+            this.firstValues = firstValues;
+            this.firstTiers = firstTiers;
+            this.lastValues = lastValues;
+            this.lastTiers = lastTiers;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * delegate.hashCode() + Arrays.hashCode(firstValues)) + Arrays.hashCode(lastValues);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof Definition
+                    && delegate.equals(((Definition) other).delegate)
+                    && Arrays.equals(firstValues, ((Definition) other).firstValues)
+                    && Arrays.equals(firstTiers, ((Definition) other).firstTiers)
+                    && Arrays.equals(lastValues, ((Definition) other).lastValues)
+                    && Arrays.equals(lastTiers, ((Definition) other).lastTiers));
+        }
+    }
+
+    /**
+     * Serialized form of a comparator: only the delegate and the distinct explicit values (or condition or prefixes)
+     * with their slots. The lookup structures are rebuilt when the comparator is deserialized.
+     */
+    private static final class SerializedForm implements Serializable {
+        private static final byte EXPLICIT_VALUES = 0;
+        private static final byte CONDITION = 1;
+        private static final byte PREFIXES = 2;
+
+        private final byte mode;
+        private final Comparator<?> delegate;
+        private final Object[] values;
+        private final int[] slots;
+        private final int otherSlot;
+        private final Predicate<Object> condition;
+        private final boolean cacheRanks;
+
+        private SerializedForm(FirstLastComparator<?> comparator) {
+            this.mode = comparator.condition != null ? CONDITION : comparator.prefixes != null ? PREFIXES : EXPLICIT_VALUES;
+            this.delegate = comparator.delegate;
+            if (mode == PREFIXES) {
+                this.values = comparator.prefixes.prefixes();
+            } else {
+                this.values = new Object[comparator.ranks.size()];
+                for (int rank = 0; rank < values.length; rank++) {
+                    values[rank] = comparator.ranks.valueAt(rank);
+                }
+            }
+            this.slots = mode == EXPLICIT_VALUES ? comparator.positionSlots : null;
+            this.otherSlot = comparator.otherSlot;
+            this.condition = comparator.condition;
+            this.cacheRanks = comparator.cacheRanks;
+        }
 
-        if (i1 < 0) {
-            if (i2 < 0) return delegate.compare(o1, o2);
-            else return compareFirst ? 1 : -1;
-        } else if (i2 < 0) {
-            return compareFirst ? -1 : 1;
+        @SuppressWarnings("unchecked")
+        private Object readResolve() {
+            final Comparator<Object> delegate = (Comparator<Object>) this.delegate;
+            final FirstLastComparator<Object> comparator;
+            if (mode == CONDITION) {
+                comparator = new FirstLastComparator<>(delegate, condition, otherSlot > 0);
+            } else if (mode == PREFIXES) {
+                comparator = new FirstLastComparator<>(delegate, Arrays.copyOf(values, values.length, String[].class), otherSlot);
+            } else {
+                int firstCount = 0; // the distinct values are in slot order
+                while (firstCount < values.length && (slots == null ? firstCount : slots[firstCount]) < otherSlot) firstCount++;
+                comparator = new FirstLastComparator<>(delegate,
+                        Arrays.copyOfRange(values, 0, firstCount),
+                        slots == null ? null : Arrays.copyOfRange(slots, 0, firstCount),
+                        Arrays.copyOfRange(values, firstCount, values.length),
+                        slots == null ? null : Arrays.copyOfRange(slots, firstCount, slots.length));
+            }
+            return cacheRanks ? new FirstLastComparator<>(comparator, true) : comparator;
         }
-        // i1 >= 0 && i2 >= 0, return explicit values in the order they are specified.
-        return i1 - i2;
     }
 }
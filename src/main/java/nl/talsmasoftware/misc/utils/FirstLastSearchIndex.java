@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Search index over a list that is sorted by a comparator.
+ * <p>
+ * The index records where each {@linkplain SlotOrder slot} of the comparator starts in the sorted list.
+ * Looking up an explicit value of a {@link FirstLastComparator} then takes constant time,
+ * and only the 'other' values are searched with a binary search using the delegate comparator.
+ * <p>
+ * The index does not copy the list; {@link #range(Object, Object)} and {@link #equalRange(Object)}
+ * return views of the list. The list must be sorted by the comparator and must not be structurally
+ * modified while the index is in use. It should support fast random access, like an {@link java.util.ArrayList}.
+ *
+ * @param <T> The type of the indexed values.
+ * @see FirstLastComparator#sort(List, Comparator)
+ */
+public final class FirstLastSearchIndex<T> {
+    private final List<T> sorted;
+    private final SlotOrder<T> order;
+
+    /**
+     * The offsets of the slots in the sorted list; slot {@code s} ranges from
+     * {@code offsets[s]} (inclusive) to {@code offsets[s + 1]} (exclusive).
+     */
+    private final int[] offsets;
+
+    /**
+     * Create an index over a sorted list.
+     *
+     * @param sorted     The list, sorted by the comparator.
+     * @param comparator The comparator the list is sorted by.
+     */
+    public FirstLastSearchIndex(List<T> sorted, Comparator<? super T> comparator) {
+        this.sorted = Objects.requireNonNull(sorted, "Sorted list is <null>.");
+        this.order = SlotOrder.of(comparator);
+        this.offsets = new int[order.slotCount() + 1];
+        offsets[offsets.length - 1] = sorted.size();
+        findOffsets(0, offsets.length - 1, 0, sorted.size());
+    }
+
+    /**
+     * Find the offsets of the slots between {@code fromSlot} and {@code toSlot} (both exclusive),
+     * whose values lie between {@code fromIndex} and {@code toIndex}, by repeatedly dividing the slots in halves.
+     */
+    private void findOffsets(int fromSlot, int toSlot, int fromIndex, int toIndex) {
+        if (toSlot - fromSlot < 2) return;
+        final int slot = (fromSlot + toSlot) >>> 1;
+        int low = fromIndex, high = toIndex;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (slotAt(mid) < slot) low = mid + 1;
+            else high = mid;
+        }
+        offsets[slot] = low;
+        findOffsets(fromSlot, slot, fromIndex, low);
+        findOffsets(slot, toSlot, low, toIndex);
+    }
+
+    private int slotAt(int index) {
+        return order.slotOf(order.keyOf(sorted.get(index)));
+    }
+
+    /**
+     * Search the sorted list for a value.
+     * <p>
+     * This follows the contract of {@link Collections#binarySearch(List, Object, Comparator)}.
+     * For explicit values, the index of the first equal value is returned.
+     *
+     * @param value The value to search for.
+     * @return The index of the value, if it is contained in the list,
+     * otherwise {@code (-(insertion point) - 1)}.
+     */
+    public int binarySearch(T value) {
+        final Object key = order.keyOf(value);
+        final int slot = order.slotOf(key);
+        final int fromIndex = offsets[slot], toIndex = offsets[slot + 1];
+        if (!order.isOrderedSlot(slot)) return fromIndex < toIndex ? fromIndex : -fromIndex - 1;
+        int low = fromIndex, high = toIndex - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int result = order.compareKeys(order.keyOf(sorted.get(mid)), key);
+            if (result < 0) low = mid + 1;
+            else if (result > 0) high = mid - 1;
+            else return mid;
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Determine the index of the first value that is not less than the given value.
+     *
+     * @param value The value to compare with.
+     * @return The index of the first value greater than or equal to the given value, or the size of the list.
+     */
+    public int lowerBound(T value) {
+        return bound(value, false);
+    }
+
+    /**
+     * Determine the index of the first value that is greater than the given value.
+     *
+     * @param value The value to compare with.
+     * @return The index of the first value greater than the given value, or the size of the list.
+     */
+    public int upperBound(T value) {
+        return bound(value, true);
+    }
+
+    private int bound(T value, boolean upper) {
+        final Object key = order.keyOf(value);
+        final int slot = order.slotOf(key);
+        if (!order.isOrderedSlot(slot)) return upper ? offsets[slot + 1] : offsets[slot];
+        int low = offsets[slot], high = offsets[slot + 1];
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int result = order.compareKeys(order.keyOf(sorted.get(mid)), key);
+            if (result < 0 || (upper && result == 0)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * View of all values that are equal to the given value.
+     *
+     * @param value The value to compare with.
+     * @return A view of the sorted list containing all values equal to the given value.
+     */
+    public List<T> equalRange(T value) {
+        return sorted.subList(lowerBound(value), upperBound(value));
+    }
+
+    /**
+     * View of the values from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param from The low endpoint (inclusive) of the values.
+     * @param to   The high endpoint (exclusive) of the values.
+     * @return A view of the sorted list containing the values in the range.
+     * @throws IllegalArgumentException if {@code from} is greater than {@code to}.
+     */
+    public List<T> range(T from, T to) {
+        final Object fromKey = order.keyOf(from), toKey = order.keyOf(to);
+        if (order.compare(fromKey, order.slotOf(fromKey), toKey, order.slotOf(toKey)) > 0) {
+            throw new IllegalArgumentException("from > to");
+        }
+        return sorted.subList(lowerBound(from), lowerBound(to));
+    }
+}
@@ -0,0 +1,625 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Navigable map sorted by the slots of a comparator.
+ * <p>
+ * Keys that are explicit values of a {@link FirstLastComparator} are stored in a table indexed by their slot,
+ * so accessing them takes constant time. Only the 'other' keys are stored in a tree,
+ * ordered by the delegate comparator. Iteration and navigation follow the order of the comparator,
+ * exactly like a {@link TreeMap} with the same comparator.
+ * <p>
+ * Like {@code TreeMap}, two keys are considered equal if the comparator considers them equal
+ * and this map is not synchronized. The views returned by {@link #subMap(Object, boolean, Object, boolean) subMap},
+ * {@link #headMap(Object, boolean) headMap}, {@link #tailMap(Object, boolean) tailMap} and
+ * {@link #descendingMap() descendingMap} are backed by this map. Their iterators are fail-fast.
+ *
+ * @param <K> The type of keys maintained by this map.
+ * @param <V> The type of mapped values.
+ * @see FirstLastSortedSet
+ */
+public final class FirstLastSortedMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final Store<K, V> store;
+
+    private final boolean fromStart, toEnd;
+    private final K lo, hi;
+    private final boolean loInclusive, hiInclusive;
+    private final boolean descending;
+
+    /**
+     * Create a new, empty map.
+     *
+     * @param comparator The comparator determining the order of the keys.
+     */
+    public FirstLastSortedMap(Comparator<? super K> comparator) {
+        this(new Store<>(Objects.requireNonNull(comparator, "Comparator is <null>.")),
+                true, null, true, true, null, true, false);
+    }
+
+    /**
+     * Create a new map containing the mappings of another map.
+     *
+     * @param comparator The comparator determining the order of the keys.
+     * @param map        The map whose mappings are to be placed in this map.
+     */
+    public FirstLastSortedMap(Comparator<? super K> comparator, Map<? extends K, ? extends V> map) {
+        this(comparator);
+        putAll(Objects.requireNonNull(map, "Map is <null>."));
+    }
+
+    private FirstLastSortedMap(Store<K, V> store, boolean fromStart, K lo, boolean loInclusive,
+                               boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+        this.store = store;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(store.comparator) : store.comparator;
+    }
+
+    @Override
+    public int size() {
+        if (fromStart && toEnd) return store.size;
+        int size = 0;
+        for (Iterator<?> iterator = entrySet().iterator(); iterator.hasNext(); iterator.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fromStart && toEnd ? store.size == 0 : lowest() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inRange(key) && store.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        return inRange(key) ? store.get(key) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (!inRange(key)) throw new IllegalArgumentException("Key out of range: " + key);
+        return store.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return inRange(key) ? store.remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) store.clear();
+        else super.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return FirstLastSortedMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return FirstLastSortedMap.this.isEmpty();
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new FirstLastSortedSet<>(this, false);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return lowest();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return descending ? absLowest() : absHighest();
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return removed(firstEntry());
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return removed(lastEntry());
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstEntry());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(lastEntry());
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return descending ? absHigher(key) : absLower(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return descending ? absCeiling(key) : absFloor(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return descending ? absFloor(key) : absCeiling(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return descending ? absLower(key) : absHigher(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(higherEntry(key));
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new FirstLastSortedMap<>(store, fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (!inRange(fromKey, fromInclusive)) throw new IllegalArgumentException("fromKey out of range: " + fromKey);
+        if (!inRange(toKey, toInclusive)) throw new IllegalArgumentException("toKey out of range: " + toKey);
+        if (comparator().compare(fromKey, toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        return descending
+                ? new FirstLastSortedMap<>(store, false, toKey, toInclusive, false, fromKey, fromInclusive, true)
+                : new FirstLastSortedMap<>(store, false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (!inRange(toKey, inclusive)) throw new IllegalArgumentException("toKey out of range: " + toKey);
+        return descending
+                ? new FirstLastSortedMap<>(store, false, toKey, inclusive, toEnd, hi, hiInclusive, true)
+                : new FirstLastSortedMap<>(store, fromStart, lo, loInclusive, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (!inRange(fromKey, inclusive)) throw new IllegalArgumentException("fromKey out of range: " + fromKey);
+        return descending
+                ? new FirstLastSortedMap<>(store, fromStart, lo, loInclusive, false, fromKey, inclusive, true)
+                : new FirstLastSortedMap<>(store, false, fromKey, inclusive, toEnd, hi, hiInclusive, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    private Entry<K, V> removed(Entry<K, V> entry) {
+        if (entry != null) store.remove(entry.getKey());
+        return entry;
+    }
+
+    private static <K> K key(Entry<K, ?> entry) {
+        if (entry == null) throw new NoSuchElementException();
+        return entry.getKey();
+    }
+
+    private static <K> K keyOrNull(Entry<K, ?> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    // Range checks and navigation within the range, in ascending ('absolute') order of the store.
+
+    private boolean tooLow(Object key) {
+        if (fromStart) return false;
+        final int result = store.compare(key, lo);
+        return result < 0 || (result == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(Object key) {
+        if (toEnd) return false;
+        final int result = store.compare(key, hi);
+        return result > 0 || (result == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(Object key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    private boolean inRange(Object key, boolean inclusive) {
+        if (inclusive) return inRange(key);
+        return (fromStart || store.compare(key, lo) >= 0) && (toEnd || store.compare(key, hi) <= 0);
+    }
+
+    private Entry<K, V> lowest() {
+        return descending ? absHighest() : absLowest();
+    }
+
+    private Entry<K, V> absLowest() {
+        final Entry<K, V> entry = fromStart ? store.first() : loInclusive ? store.ceiling(lo) : store.higher(lo);
+        return entry == null || tooHigh(entry.getKey()) ? null : entry;
+    }
+
+    private Entry<K, V> absHighest() {
+        final Entry<K, V> entry = toEnd ? store.last() : hiInclusive ? store.floor(hi) : store.lower(hi);
+        return entry == null || tooLow(entry.getKey()) ? null : entry;
+    }
+
+    private Entry<K, V> absCeiling(K key) {
+        if (tooLow(key)) return absLowest();
+        final Entry<K, V> entry = store.ceiling(key);
+        return entry == null || tooHigh(entry.getKey()) ? null : entry;
+    }
+
+    private Entry<K, V> absHigher(K key) {
+        if (tooLow(key)) return absLowest();
+        final Entry<K, V> entry = store.higher(key);
+        return entry == null || tooHigh(entry.getKey()) ? null : entry;
+    }
+
+    private Entry<K, V> absFloor(K key) {
+        if (tooHigh(key)) return absHighest();
+        final Entry<K, V> entry = store.floor(key);
+        return entry == null || tooLow(entry.getKey()) ? null : entry;
+    }
+
+    private Entry<K, V> absLower(K key) {
+        if (tooHigh(key)) return absHighest();
+        final Entry<K, V> entry = store.lower(key);
+        return entry == null || tooLow(entry.getKey()) ? null : entry;
+    }
+
+    /**
+     * Fail-fast iterator over the entries of this map, walking the entries of each occupied slot in turn.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private int slot = -1, lastSlot = -1;
+        private Iterator<Entry<K, V>> slotEntries = Collections.emptyIterator();
+        private Entry<K, V> next, lastReturned;
+        private int expectedModCount = store.modCount;
+
+        private EntryIterator() {
+            next = lowest();
+            if (next != null) {
+                slot = store.slotOf(next.getKey());
+                slotEntries = store.entriesFrom(slot, next.getKey(), false, descending);
+            }
+        }
+
+        /**
+         * @return The entry following the current one, or {@code null} if there are no more entries in range.
+         */
+        private Entry<K, V> advance() {
+            while (!slotEntries.hasNext()) {
+                slot = descending ? store.occupied.previousSetBit(slot - 1) : store.occupied.nextSetBit(slot + 1);
+                if (slot < 0) return null;
+                slotEntries = store.entries(slot, descending);
+            }
+            final Entry<K, V> entry = slotEntries.next();
+            return (descending ? tooLow(entry.getKey()) : tooHigh(entry.getKey())) ? null : entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            if (store.modCount != expectedModCount) throw new ConcurrentModificationException();
+            lastReturned = next;
+            lastSlot = slot;
+            next = advance();
+            return new SimpleEntry<K, V>(lastReturned) {
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    return store.put(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (store.modCount != expectedModCount) throw new ConcurrentModificationException();
+            store.remove(lastReturned.getKey());
+            if (next != null && lastSlot == slot && store.order.isOrderedSlot(slot)) {
+                // the removal invalidated the iterator of the slot, continue after the next entry
+                slotEntries = store.entriesFrom(slot, next.getKey(), false, descending);
+            }
+            expectedModCount = store.modCount;
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * The mappings of the map and all its views, stored per slot of the comparator.
+     */
+    private static final class Store<K, V> {
+        private final Comparator<? super K> comparator;
+        private final SlotOrder<K> order;
+
+        /**
+         * Comparator for keys within the same ordered slot.
+         */
+        private final Comparator<K> slotComparator;
+
+        /**
+         * The slots containing any mappings.
+         */
+        private final BitSet occupied = new BitSet();
+
+        /**
+         * The key and value of each occupied unordered slot, such as the slot of an explicit value.
+         */
+        private final Object[] keys, values;
+
+        /**
+         * The mappings of each ordered slot, such as the slot of all 'other' values.
+         */
+        private final TreeMap<K, V>[] trees;
+
+        private int size, modCount;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Store(Comparator<? super K> comparator) {
+            this.comparator = LiveFirstLastComparator.snapshotOf(comparator);
+            this.order = SlotOrder.of(this.comparator);
+            this.slotComparator = (key1, key2) -> order.compareKeys(order.keyOf(key1), order.keyOf(key2));
+            this.keys = new Object[order.slotCount()];
+            this.values = new Object[order.slotCount()];
+            this.trees = new TreeMap[order.slotCount()];
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Object key1, Object key2) {
+            final Object k1 = order.keyOf((K) key1), k2 = order.keyOf((K) key2);
+            return order.compare(k1, order.slotOf(k1), k2, order.slotOf(k2));
+        }
+
+        @SuppressWarnings("unchecked")
+        private int slotOf(Object key) {
+            return order.slotOf(order.keyOf((K) key));
+        }
+
+        private boolean containsKey(Object key) {
+            final int slot = slotOf(key);
+            return order.isOrderedSlot(slot) ? trees[slot] != null && trees[slot].containsKey(key) : occupied.get(slot);
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(Object key) {
+            final int slot = slotOf(key);
+            return order.isOrderedSlot(slot) ? trees[slot] == null ? null : trees[slot].get(key) : (V) values[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(K key, V value) {
+            final int slot = slotOf(key);
+            if (order.isOrderedSlot(slot)) {
+                if (trees[slot] == null) trees[slot] = new TreeMap<>(slotComparator);
+                final int treeSize = trees[slot].size();
+                final V previous = trees[slot].put(key, value);
+                if (trees[slot].size() != treeSize) added(slot);
+                return previous;
+            }
+            final V previous = (V) values[slot];
+            values[slot] = value;
+            if (!occupied.get(slot)) {
+                keys[slot] = key;
+                added(slot);
+            }
+            return previous;
+        }
+
+        private void added(int slot) {
+            occupied.set(slot);
+            size++;
+            modCount++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(Object key) {
+            final int slot = slotOf(key);
+            if (!occupied.get(slot)) return null;
+            final V previous;
+            if (order.isOrderedSlot(slot)) {
+                if (!trees[slot].containsKey(key)) return null;
+                previous = trees[slot].remove(key);
+                if (trees[slot].isEmpty()) occupied.clear(slot);
+            } else {
+                previous = (V) values[slot];
+                keys[slot] = values[slot] = null;
+                occupied.clear(slot);
+            }
+            size--;
+            modCount++;
+            return previous;
+        }
+
+        private void clear() {
+            occupied.clear();
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            Arrays.fill(trees, null);
+            size = 0;
+            modCount++;
+        }
+
+        private Entry<K, V> first() {
+            return firstIn(occupied.nextSetBit(0));
+        }
+
+        private Entry<K, V> last() {
+            return lastIn(occupied.previousSetBit(keys.length - 1));
+        }
+
+        private Entry<K, V> ceiling(K key) {
+            final int slot = slotOf(key);
+            if (occupied.get(slot)) {
+                if (!order.isOrderedSlot(slot)) return entry(slot);
+                final Entry<K, V> entry = trees[slot].ceilingEntry(key);
+                if (entry != null) return entry;
+            }
+            return firstIn(occupied.nextSetBit(slot + 1));
+        }
+
+        private Entry<K, V> higher(K key) {
+            final int slot = slotOf(key);
+            if (occupied.get(slot) && order.isOrderedSlot(slot)) {
+                final Entry<K, V> entry = trees[slot].higherEntry(key);
+                if (entry != null) return entry;
+            }
+            return firstIn(occupied.nextSetBit(slot + 1));
+        }
+
+        private Entry<K, V> floor(K key) {
+            final int slot = slotOf(key);
+            if (occupied.get(slot)) {
+                if (!order.isOrderedSlot(slot)) return entry(slot);
+                final Entry<K, V> entry = trees[slot].floorEntry(key);
+                if (entry != null) return entry;
+            }
+            return lastIn(slot == 0 ? -1 : occupied.previousSetBit(slot - 1));
+        }
+
+        private Entry<K, V> lower(K key) {
+            final int slot = slotOf(key);
+            if (occupied.get(slot) && order.isOrderedSlot(slot)) {
+                final Entry<K, V> entry = trees[slot].lowerEntry(key);
+                if (entry != null) return entry;
+            }
+            return lastIn(slot == 0 ? -1 : occupied.previousSetBit(slot - 1));
+        }
+
+        /**
+         * @return The entries of an occupied slot, in ascending or descending order.
+         */
+        private Iterator<Entry<K, V>> entries(int slot, boolean descending) {
+            if (!order.isOrderedSlot(slot)) return Collections.singleton(entry(slot)).iterator();
+            return (descending ? trees[slot].descendingMap() : trees[slot]).entrySet().iterator();
+        }
+
+        /**
+         * @return The entries of an occupied slot from a key of that slot, in ascending or descending order.
+         */
+        private Iterator<Entry<K, V>> entriesFrom(int slot, K key, boolean inclusive, boolean descending) {
+            if (!order.isOrderedSlot(slot)) {
+                return inclusive ? Collections.singleton(entry(slot)).iterator() : Collections.emptyIterator();
+            }
+            return (descending ? trees[slot].headMap(key, inclusive).descendingMap() : trees[slot].tailMap(key, inclusive))
+                    .entrySet().iterator();
+        }
+
+        private Entry<K, V> firstIn(int slot) {
+            if (slot < 0) return null;
+            return order.isOrderedSlot(slot) ? trees[slot].firstEntry() : entry(slot);
+        }
+
+        private Entry<K, V> lastIn(int slot) {
+            if (slot < 0) return null;
+            return order.isOrderedSlot(slot) ? trees[slot].lastEntry() : entry(slot);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Entry<K, V> entry(int slot) {
+            return new SimpleImmutableEntry<>((K) keys[slot], (V) values[slot]);
+        }
+    }
+}
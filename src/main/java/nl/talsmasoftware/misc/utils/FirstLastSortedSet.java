@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.SortedSet;
+
+/**
+ * Navigable set sorted by the slots of a comparator, backed by a {@link FirstLastSortedMap}.
+ * <p>
+ * Elements that are explicit values of a {@link FirstLastComparator} are accessed in constant time.
+ * Only the 'other' elements are stored in a tree, ordered by the delegate comparator.
+ * Iteration and navigation follow the order of the comparator, exactly like a {@link java.util.TreeSet}
+ * with the same comparator.
+ *
+ * @param <E> The type of elements maintained by this set.
+ * @see FirstLastSortedMap
+ */
+public final class FirstLastSortedSet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private final NavigableMap<E, ?> map;
+
+    /**
+     * Whether elements can be added, which is not the case for the key set of a map.
+     */
+    private final boolean addable;
+
+    /**
+     * Create a new, empty set.
+     *
+     * @param comparator The comparator determining the order of the elements.
+     */
+    public FirstLastSortedSet(Comparator<? super E> comparator) {
+        this(new FirstLastSortedMap<E, Boolean>(comparator), true);
+    }
+
+    /**
+     * Create a new set containing the given elements.
+     *
+     * @param comparator The comparator determining the order of the elements.
+     * @param elements   The elements to be placed in this set.
+     */
+    public FirstLastSortedSet(Comparator<? super E> comparator, Collection<? extends E> elements) {
+        this(comparator);
+        addAll(Objects.requireNonNull(elements, "Elements are <null>."));
+    }
+
+    FirstLastSortedSet(NavigableMap<E, ?> map, boolean addable) {
+        this.map = map;
+        this.addable = addable;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean add(E element) {
+        if (!addable) throw new UnsupportedOperationException("Cannot add to the key set of a map.");
+        return ((Map<E, Boolean>) map).put(element, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (!map.containsKey(element)) return false;
+        map.remove(element);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return map.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<? extends Map.Entry<E, ?>> entries = map.entrySet().iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return entries.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+                entries.remove();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return map.comparator();
+    }
+
+    @Override
+    public E first() {
+        return map.firstKey();
+    }
+
+    @Override
+    public E last() {
+        return map.lastKey();
+    }
+
+    @Override
+    public E lower(E element) {
+        return map.lowerKey(element);
+    }
+
+    @Override
+    public E floor(E element) {
+        return map.floorKey(element);
+    }
+
+    @Override
+    public E ceiling(E element) {
+        return map.ceilingKey(element);
+    }
+
+    @Override
+    public E higher(E element) {
+        return map.higherKey(element);
+    }
+
+    @Override
+    public E pollFirst() {
+        final Map.Entry<E, ?> entry = map.pollFirstEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public E pollLast() {
+        final Map.Entry<E, ?> entry = map.pollLastEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return new FirstLastSortedSet<>(map.descendingMap(), addable);
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return new FirstLastSortedSet<>(map.subMap(fromElement, fromInclusive, toElement, toInclusive), addable);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return new FirstLastSortedSet<>(map.headMap(toElement, inclusive), addable);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return new FirstLastSortedSet<>(map.tailMap(fromElement, inclusive), addable);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+}
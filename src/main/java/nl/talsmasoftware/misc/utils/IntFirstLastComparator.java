@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Primitive {@code int} variant of the {@link FirstLastComparator}, sorting certain values first or last.
+ * <p>
+ * All other values are sorted in their natural (ascending) order.
+ * The explicit values are kept in an open-addressed primitive table,
+ * so neither comparing nor sorting requires any boxing.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * int[] ids = ...;
+ * IntFirstLastComparator.compareFirst(42, 7).sort(ids);
+ * }</pre>
+ * In the example above, all occurrences of {@code 42} are sorted first, followed by all occurrences of {@code 7}
+ * and then all other ids in ascending order.
+ *
+ * @see FirstLastComparator
+ */
+public final class IntFirstLastComparator implements Serializable {
+    private final boolean compareFirst;
+
+    /**
+     * The distinct explicit values in the order they were specified, indexed by rank.
+     */
+    private final int[] values;
+
+    /**
+     * Open-addressed hash table with the explicit values.
+     */
+    private final int[] table;
+
+    /**
+     * The rank of the value in the corresponding {@code table} position, plus one ({@code 0} marks an empty position).
+     */
+    private final int[] tableRanks;
+
+    private IntFirstLastComparator(boolean compareFirst, int[] explicitValues) {
+        this.compareFirst = compareFirst;
+        int capacity = 2;
+        while (capacity < explicitValues.length * 2) capacity <<= 1;
+        this.table = new int[capacity];
+        this.tableRanks = new int[capacity];
+
+        int size = 0;
+        final int[] distinct = new int[explicitValues.length];
+        for (int value : explicitValues) {
+            int index = indexFor(value);
+            while (tableRanks[index] != 0 && table[index] != value) index = (index + 1) & (capacity - 1);
+            if (tableRanks[index] == 0) {
+                table[index] = value;
+                tableRanks[index] = size + 1;
+                distinct[size++] = value;
+            }
+        }
+        this.values = Arrays.copyOf(distinct, size);
+    }
+
+    /**
+     * Sort one or more values first, sorting all other values in ascending order.
+     *
+     * @param firstValues The values to be sorted first.
+     * @return A comparator sorting the given values first.
+     */
+    public static IntFirstLastComparator compareFirst(int... firstValues) {
+        return new IntFirstLastComparator(true, Objects.requireNonNull(firstValues, "firstValues is <null>."));
+    }
+
+    /**
+     * Sort one or more values last, sorting all other values in ascending order.
+     *
+     * @param lastValues The values to be sorted last.
+     * @return A comparator sorting the given values last.
+     */
+    public static IntFirstLastComparator compareLast(int... lastValues) {
+        return new IntFirstLastComparator(false, Objects.requireNonNull(lastValues, "lastValues is <null>."));
+    }
+
+    /**
+     * Compare two values.
+     * <p>
+     * Explicit values are sorted either first or last in the order they were specified,
+     * all other values are compared in ascending order.
+     *
+     * @param v1 the first value to be compared.
+     * @param v2 the second value to be compared.
+     * @return a negative integer, zero, or a positive integer
+     * as the first argument is less than, equal to, or greater than the second.
+     */
+    public int compare(int v1, int v2) {
+        final int i1 = rankOf(v1);
+        final int i2 = rankOf(v2);
+
+        if (i1 < 0) {
+            if (i2 < 0) return Integer.compare(v1, v2);
+            else return compareFirst ? 1 : -1;
+        } else if (i2 < 0) {
+            return compareFirst ? -1 : 1;
+        }
+        return i1 - i2;
+    }
+
+    /**
+     * Sort the specified array.
+     *
+     * @param array The array to be sorted.
+     * @see #sort(int[], int, int)
+     */
+    public void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sort the specified range of the array.
+     * <p>
+     * Each element is classified exactly once. The explicit values are moved to the start (or end) of the range,
+     * replaced by their rank. Both partitions are then sorted as primitives,
+     * after which the ranks are replaced by their explicit values again.
+     *
+     * @param array     The array to be sorted.
+     * @param fromIndex The index of the first element (inclusive) to be sorted.
+     * @param toIndex   The index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > array.length}
+     */
+    public void sort(int[] array, int fromIndex, int toIndex) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        } else if (fromIndex < 0 || toIndex > array.length) {
+            throw new ArrayIndexOutOfBoundsException(fromIndex < 0 ? fromIndex : toIndex);
+        }
+
+        int boundary;
+        if (compareFirst) {
+            boundary = fromIndex;
+            for (int i = fromIndex; i < toIndex; i++) {
+                final int rank = rankOf(array[i]);
+                if (rank >= 0) {
+                    array[i] = array[boundary];
+                    array[boundary++] = rank;
+                }
+            }
+            replaceRanks(array, fromIndex, boundary);
+            Arrays.sort(array, boundary, toIndex);
+        } else {
+            boundary = toIndex;
+            for (int i = toIndex - 1; i >= fromIndex; i--) {
+                final int rank = rankOf(array[i]);
+                if (rank >= 0) {
+                    array[i] = array[--boundary];
+                    array[boundary] = rank;
+                }
+            }
+            Arrays.sort(array, fromIndex, boundary);
+            replaceRanks(array, boundary, toIndex);
+        }
+    }
+
+    private void replaceRanks(int[] array, int fromIndex, int toIndex) {
+        Arrays.sort(array, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            array[i] = values[array[i]];
+        }
+    }
+
+    private int rankOf(int value) {
+        final int mask = table.length - 1;
+        for (int index = indexFor(value), rank; (rank = tableRanks[index]) != 0; index = (index + 1) & mask) {
+            if (table[index] == value) return rank - 1;
+        }
+        return -1;
+    }
+
+    private int indexFor(int value) {
+        final int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+}
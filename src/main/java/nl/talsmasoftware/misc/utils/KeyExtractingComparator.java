@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Comparator comparing values by an extracted key.
+ *
+ * @param <T> The type to be sorted.
+ * @param <K> The type of the sort key.
+ * @see FirstLastComparator#comparing(Function, Comparator)
+ */
+final class KeyExtractingComparator<T, K> implements Comparator<T>, Serializable {
+    final Function<? super T, ? extends K> keyExtractor;
+    final Comparator<? super K> keyComparator;
+
+    KeyExtractingComparator(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+        this.keyExtractor = keyExtractor;
+        this.keyComparator = keyComparator;
+    }
+
+    @Override
+    public int compare(T o1, T o2) {
+        return keyComparator.compare(keyExtractor.apply(o1), keyExtractor.apply(o2));
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Comparator sorting certain values first or last, where the values can be replaced at any time.
+ * <p>
+ * The comparator holds an immutable {@link FirstLastComparator} snapshot that is replaced atomically
+ * by {@link #update(Collection, Collection)}. Comparing two values takes a single volatile read of the snapshot,
+ * without any locking.
+ * <p>
+ * The {@code sort} methods and sorted structures in {@link FirstLastComparator} take the snapshot once,
+ * so a sort or structure is consistent even if the values are updated concurrently.
+ * Other algorithms, such as {@link java.util.List#sort(Comparator)} or a {@link java.util.TreeMap},
+ * should be given the {@link #snapshot()} instead of this comparator.
+ * <p>
+ * The values can also be {@linkplain #watch(Path, Function) reloaded} from a file whenever it changes.
+ *
+ * @param <T> The type to be sorted.
+ * @see FirstLastComparator#live(Comparator, Collection, Collection)
+ */
+public final class LiveFirstLastComparator<T> implements Comparator<T>, Serializable {
+    /**
+     * Line in a watched file representing the position of all 'other' values.
+     */
+    private static final String OTHER_VALUES = "*";
+    private static final Logger LOGGER = Logger.getLogger(LiveFirstLastComparator.class.getName());
+
+    private final Comparator<T> delegate;
+    private volatile Comparator<T> snapshot;
+
+    LiveFirstLastComparator(Comparator<T> delegate, Collection<? extends T> firstValues, Collection<? extends T> lastValues) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate comparator is <null>.");
+        update(firstValues, lastValues);
+    }
+
+    /**
+     * Return the snapshot of a live comparator, or the comparator itself.
+     * <p>
+     * A live comparator comparing the keys of a {@link FirstLastComparator#comparing(Function, Comparator)}
+     * comparator is also replaced by its snapshot.
+     *
+     * @param comparator The comparator (or {@code null} for natural ordering).
+     * @param <T>        The type to be sorted.
+     * @return The current snapshot if the comparator is live, otherwise the comparator itself.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Comparator<T> snapshotOf(Comparator<T> comparator) {
+        if (comparator instanceof LiveFirstLastComparator) {
+            return ((LiveFirstLastComparator<T>) comparator).snapshot();
+        } else if (comparator instanceof KeyExtractingComparator
+                && ((KeyExtractingComparator<T, ?>) comparator).keyComparator instanceof LiveFirstLastComparator) {
+            final KeyExtractingComparator<T, Object> keyExtracting = (KeyExtractingComparator<T, Object>) comparator;
+            return new KeyExtractingComparator<>(keyExtracting.keyExtractor,
+                    ((LiveFirstLastComparator<Object>) keyExtracting.keyComparator).snapshot());
+        }
+        return comparator;
+    }
+
+    /**
+     * @return The current immutable comparator, that is not affected by later updates.
+     */
+    public Comparator<T> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replace the values sorted first and last.
+     * <p>
+     * Comparisons that start after this method returns use the new values.
+     * A value that is specified both first and last is sorted first.
+     *
+     * @param firstValues The values to be sorted first.
+     * @param lastValues  The values to be sorted last.
+     */
+    public void update(Collection<? extends T> firstValues, Collection<? extends T> lastValues) {
+        snapshot = FirstLastComparator.builder(delegate)
+                .first(Objects.requireNonNull(firstValues, "firstValues is <null>."))
+                .last(Objects.requireNonNull(lastValues, "lastValues is <null>."))
+                .build();
+    }
+
+    /**
+     * Load the values from a file, and reload them whenever the file changes.
+     * <p>
+     * The file contains one value per line. Blank lines and lines starting with {@code #} are ignored.
+     * A line containing only {@code *} stands for all 'other' values:
+     * values before it are sorted first, values after it are sorted last.
+     * Without such a line, all values are sorted first.
+     * <p>
+     * The file is watched by a daemon thread. If reloading fails, the failure is logged as a warning and
+     * the previous values are kept until the next change.
+     * To avoid reading a partially written file, replace it by moving a complete file in place.
+     *
+     * @param file   The file to load the values from.
+     * @param parser The parser of a (trimmed) line into a value.
+     * @return Handle to stop watching the file.
+     * @throws IOException if the file could not be loaded or watched.
+     * @see #watch(Path, Function, Consumer)
+     */
+    public Closeable watch(Path file, Function<String, ? extends T> parser) throws IOException {
+        return watch(file, parser, reloadFailed -> LOGGER.log(Level.WARNING,
+                "Could not reload " + file + ", keeping the previous values.", reloadFailed));
+    }
+
+    /**
+     * Load the values from a file, and reload them whenever the file changes,
+     * reporting failures to reload the file to an error handler.
+     * <p>
+     * The file format is the same as for {@link #watch(Path, Function)}.
+     * If reloading fails, the error handler is called from the watching thread and
+     * the previous values are kept until the next change.
+     *
+     * @param file         The file to load the values from.
+     * @param parser       The parser of a (trimmed) line into a value.
+     * @param errorHandler The handler for failures to reload the file.
+     * @return Handle to stop watching the file.
+     * @throws IOException if the file could not be loaded or watched.
+     */
+    public Closeable watch(Path file, Function<String, ? extends T> parser, Consumer<? super Exception> errorHandler) throws IOException {
+        final Path path = Objects.requireNonNull(file, "File is <null>.").toAbsolutePath();
+        Objects.requireNonNull(parser, "Parser is <null>.");
+        Objects.requireNonNull(errorHandler, "Error handler is <null>.");
+        final WatchService watchService = path.getFileSystem().newWatchService();
+        try {
+            path.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            load(path, parser); // after registering, so no change can be missed
+        } catch (IOException | RuntimeException watchFailed) {
+            watchService.close();
+            throw watchFailed;
+        }
+        final Thread watcher = new Thread(() -> reloadOnChange(watchService, path, parser, errorHandler),
+                "watch-" + path.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+        return watchService::close;
+    }
+
+    private void reloadOnChange(WatchService watchService, Path file, Function<String, ? extends T> parser,
+                                Consumer<? super Exception> errorHandler) {
+        try {
+            for (WatchKey key = watchService.take(); ; key = watchService.take()) {
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == OVERFLOW || file.getFileName().equals(event.context());
+                }
+                if (changed) {
+                    try {
+                        load(file, parser);
+                    } catch (IOException | RuntimeException reloadFailed) {
+                        reportReloadFailure(errorHandler, reloadFailed); // the previous values are kept
+                    }
+                }
+                if (!key.reset()) return; // the directory is no longer accessible
+            }
+        } catch (InterruptedException | ClosedWatchServiceException stopped) {
+            // watching the file was stopped
+        }
+    }
+
+    /**
+     * Report a reload failure, without letting a failing error handler stop the watching thread.
+     */
+    private static void reportReloadFailure(Consumer<? super Exception> errorHandler, Exception reloadFailed) {
+        try {
+            errorHandler.accept(reloadFailed);
+        } catch (RuntimeException handlerFailed) {
+            handlerFailed.addSuppressed(reloadFailed);
+            LOGGER.log(Level.WARNING, "Error handler failed to handle a reload failure.", handlerFailed);
+        }
+    }
+
+    private void load(Path file, Function<String, ? extends T> parser) throws IOException {
+        final List<T> firstValues = new ArrayList<>();
+        final List<T> lastValues = new ArrayList<>();
+        List<T> values = firstValues;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (OTHER_VALUES.equals(line)) values = lastValues;
+            else values.add(parser.apply(line));
+        }
+        update(firstValues, lastValues);
+    }
+
+    /**
+     * Compare two objects using the current snapshot.
+     *
+     * @param o1 the first object to be compared.
+     * @param o2 the second object to be compared.
+     * @return a negative integer, zero, or a positive integer
+     * as the first argument is less than, equal to, or greater than the second.
+     */
+    @Override
+    public int compare(T o1, T o2) {
+        return snapshot.compare(o1, o2);
+    }
+}
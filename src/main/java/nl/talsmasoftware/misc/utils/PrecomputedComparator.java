@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Comparator for a finite domain of values, using a precomputed sort key for each value.
+ * <p>
+ * The sort keys are derived once from another comparator, typically a {@link FirstLastComparator}.
+ * Comparing two values takes a single lookup per value and never calls the other comparator.
+ * <p>
+ * The sort key of a value can also be obtained with {@link #sortKey(Object)},
+ * for example to store it in a database column and sort by that column.
+ * The sort keys are consecutive numbers starting at {@code 0}.
+ * Values that are equal according to the other comparator share the same sort key.
+ *
+ * @param <T> The type to be sorted.
+ * @see FirstLastComparator#precompute(java.util.Collection, Comparator)
+ */
+public final class PrecomputedComparator<T> implements Comparator<T>, Serializable {
+    /**
+     * Index of each distinct value in the domain.
+     */
+    private final RankTable ranks;
+
+    /**
+     * The sort key of each distinct value, indexed by its rank.
+     */
+    private final int[] sortKeys;
+
+    PrecomputedComparator(Object[] domain, Comparator<Object> comparator) {
+        this.ranks = new RankTable(domain);
+        final Object[] sorted = new Object[ranks.size()];
+        for (int rank = 0; rank < sorted.length; rank++) {
+            sorted[rank] = ranks.valueAt(rank);
+        }
+        Arrays.sort(sorted, comparator);
+        this.sortKeys = new int[sorted.length];
+        for (int i = 1, key = 0; i < sorted.length; i++) {
+            if (comparator.compare(sorted[i - 1], sorted[i]) != 0) key++;
+            sortKeys[ranks.rankOf(sorted[i])] = key;
+        }
+    }
+
+    private PrecomputedComparator(Object[] distinctValues, int[] sortKeys) {
+        this.ranks = new RankTable(distinctValues);
+        this.sortKeys = sortKeys;
+    }
+
+    /**
+     * Determine the sort key of a value.
+     *
+     * @param value The value within the domain.
+     * @return The sort key of the value.
+     * @throws IllegalArgumentException if the value is not part of the precomputed domain.
+     */
+    public int sortKey(T value) {
+        final int rank = ranks.rankOf(value);
+        if (rank < 0) throw new IllegalArgumentException("Value is not part of the precomputed domain: " + value);
+        return sortKeys[rank];
+    }
+
+    /**
+     * Compare two values by their sort key.
+     *
+     * @param o1 the first object to be compared.
+     * @param o2 the second object to be compared.
+     * @return a negative integer, zero, or a positive integer
+     * as the first argument is less than, equal to, or greater than the second.
+     * @throws IllegalArgumentException if either value is not part of the precomputed domain.
+     */
+    @Override
+    public int compare(T o1, T o2) {
+        return sortKey(o1) - sortKey(o2);
+    }
+
+    /**
+     * Serialize the comparator by its distinct values and their sort keys instead of its lookup table.
+     *
+     * @return The serialized form, that recreates the comparator when it is deserialized.
+     */
+    private Object writeReplace() {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("PrecomputedComparator must be deserialized from its serialized form.");
+    }
+
+    /**
+     * Serialized form of a precomputed comparator: the distinct values in rank order and their sort keys.
+     */
+    private static final class SerializedForm implements Serializable {
+        private final Object[] values;
+        private final int[] sortKeys;
+
+        private SerializedForm(PrecomputedComparator<?> comparator) {
+            this.values = new Object[comparator.ranks.size()];
+            for (int rank = 0; rank < values.length; rank++) {
+                values[rank] = comparator.ranks.valueAt(rank);
+            }
+            this.sortKeys = comparator.sortKeys;
+        }
+
+        private Object readResolve() {
+            return new PrecomputedComparator<>(values, sortKeys);
+        }
+    }
+}
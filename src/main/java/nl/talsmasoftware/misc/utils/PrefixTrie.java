@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of string prefixes to their rank, backed by a trie in flat arrays.
+ * <p>
+ * The rank of a prefix is the position of its first occurrence among the distinct prefixes.
+ * A looked-up string is matched against its longest prefix, walking the trie once along the characters
+ * of the string. The lookup cost therefore grows with the length of the string,
+ * not with the number of prefixes.
+ */
+final class PrefixTrie {
+    private static final int NONE = -1;
+
+    /**
+     * The number of distinct prefixes.
+     */
+    private final int size;
+
+    /**
+     * The start of the outgoing edges of each node in {@code labels} and {@code targets};
+     * the edges of node {@code n} end at the start of node {@code n + 1}.
+     */
+    private final int[] edgeStart;
+
+    /**
+     * The character of each edge, sorted per node.
+     */
+    private final char[] labels;
+
+    /**
+     * The target node of each edge.
+     */
+    private final int[] targets;
+
+    /**
+     * The rank of the prefix ending at each node, or {@code -1} if no prefix ends there.
+     */
+    private final int[] nodeRanks;
+
+    PrefixTrie(String[] prefixes) {
+        final List<Node> nodes = new ArrayList<>();
+        final Node root = new Node();
+        nodes.add(root);
+        int distinct = 0;
+        for (String prefix : prefixes) {
+            Node node = root;
+            for (int i = 0; i < Objects.requireNonNull(prefix, "Prefix is <null>.").length(); i++) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    node.children.put(prefix.charAt(i), child = new Node());
+                    child.index = nodes.size();
+                    nodes.add(child);
+                }
+                node = child;
+            }
+            if (node.rank == NONE) node.rank = distinct++; // ranked at its first occurrence
+        }
+        this.size = distinct;
+
+        this.edgeStart = new int[nodes.size() + 1];
+        this.labels = new char[nodes.size() - 1];
+        this.targets = new int[nodes.size() - 1];
+        this.nodeRanks = new int[nodes.size()];
+        int edge = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            edgeStart[n] = edge;
+            nodeRanks[n] = nodes.get(n).rank;
+            for (Map.Entry<Character, Node> child : nodes.get(n).children.entrySet()) {
+                labels[edge] = child.getKey();
+                targets[edge++] = child.getValue().index;
+            }
+        }
+        edgeStart[nodes.size()] = edge;
+    }
+
+    /**
+     * @return The number of distinct prefixes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The distinct prefixes, indexed by rank.
+     */
+    String[] prefixes() {
+        final String[] prefixes = new String[size];
+        collectPrefixes(0, new StringBuilder(), prefixes);
+        return prefixes;
+    }
+
+    private void collectPrefixes(int node, StringBuilder path, String[] prefixes) {
+        if (nodeRanks[node] != NONE) prefixes[nodeRanks[node]] = path.toString();
+        for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+            collectPrefixes(targets[edge], path.append(labels[edge]), prefixes);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * @param value The value to look up.
+     * @return The rank of the longest prefix of the value,
+     * or {@code -1} if the value is not a string starting with one of the prefixes.
+     */
+    int rankOf(Object value) {
+        if (!(value instanceof String)) return NONE;
+        final String string = (String) value;
+        int rank = nodeRanks[0];
+        for (int i = 0, node = 0, length = string.length(); i < length; i++) {
+            final int edge = Arrays.binarySearch(labels, edgeStart[node], edgeStart[node + 1], string.charAt(i));
+            if (edge < 0) break;
+            node = targets[edge];
+            if (nodeRanks[node] != NONE) rank = nodeRanks[node];
+        }
+        return rank;
+    }
+
+    /**
+     * Mutable node, only used while building the trie.
+     */
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private int index;
+        private int rank = NONE;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+/**
+ * Element that keeps its own rank in a {@link FirstLastComparator}.
+ * <p>
+ * Comparators obtained from {@link FirstLastComparator#withRankCache(java.util.Comparator)} look up the rank
+ * of such an element only once and store it in the element's {@link RankCache}.
+ * Every later comparison of the same instance, by any sort algorithm or sorted collection,
+ * then skips the {@code hashCode} and {@code equals} calls of the lookup.
+ * <p>
+ * For example:
+ * <pre>{@code
+ * public final class TenantKey implements RankAware {
+ *     private final RankCache rankCache = new RankCache();
+ *     ...
+ *     public RankCache rankCache() {
+ *         return rankCache;
+ *     }
+ * }
+ * }</pre>
+ * The cached rank is only valid as long as the element's {@code equals} and {@code hashCode} do not change,
+ * which is the case for immutable elements.
+ *
+ * @see FirstLastComparator#withRankCache(java.util.Comparator)
+ */
+public interface RankAware {
+    /**
+     * @return The rank cache of this element, always the same instance.
+     */
+    RankCache rankCache();
+}
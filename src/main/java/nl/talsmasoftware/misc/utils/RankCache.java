@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.io.Serializable;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache of the rank of a single {@link RankAware} element.
+ * <p>
+ * The cache holds the rank for the last comparator that looked up the element, so an element that is
+ * sorted by several comparators in turn is looked up again for each of them.
+ * It is thread-safe: the rank and the comparator it belongs to are replaced together, atomically.
+ * <p>
+ * The cached rank is not serialized; a deserialized element is simply looked up again.
+ *
+ * @see RankAware
+ */
+public final class RankCache implements Serializable {
+    private transient volatile Entry entry;
+
+    /**
+     * Create an empty rank cache.
+     */
+    public RankCache() {
+    }
+
+    /**
+     * @param element   The element owning this cache.
+     * @param positions The lookup of the position of the element, identifying the comparator.
+     * @return The cached position, or the looked up position if none was cached for this lookup.
+     */
+    int positionOf(Object element, ToIntFunction<Object> positions) {
+        final Entry cached = entry;
+        if (cached != null && cached.positions == positions) return cached.position;
+        final int position = positions.applyAsInt(element);
+        entry = new Entry(positions, position);
+        return position;
+    }
+
+    /**
+     * Immutable pair of a position and the lookup it was obtained from.
+     */
+    private static final class Entry {
+        private final ToIntFunction<Object> positions;
+        private final int position;
+
+        private Entry(ToIntFunction<Object> positions, int position) {
+            this.positions = positions;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+/**
+ * Immutable index of explicit values to their rank, backed by an open-addressed hash table.
+ * <p>
+ * The rank of a value is the position of its first occurrence among the distinct explicit values.
+ * Lookups call {@code hashCode} of the looked-up value once and {@code equals} only for values with
+ * a colliding hash position; {@code null} is supported as a value.
+ * <p>
+ * For small sets of values, a hash seed is searched that places every value at its own table position
+ * (a perfect hash). A lookup then takes a single hash, one table probe and at most one {@code equals} call.
+ */
+final class RankTable {
+    /**
+     * The maximum number of distinct values to search a perfect hash for.
+     */
+    static final int PERFECT_HASH_LIMIT = 16;
+
+    private static final int DEFAULT_SEED = 0x9E3779B9;
+    private static final int SEED_ATTEMPTS = 64;
+
+    /**
+     * The distinct values, indexed by rank.
+     */
+    private final Object[] values;
+
+    /**
+     * Odd multiplier spreading the hash codes over the table.
+     */
+    private final int seed;
+
+    /**
+     * Whether every value has its own table position, so lookups never probe beyond the first position.
+     */
+    private final boolean perfect;
+
+    /**
+     * The values at their hash position.
+     */
+    private final Object[] table;
+
+    /**
+     * The rank of the value at the corresponding {@code table} position, plus one ({@code 0} marks an empty position).
+     */
+    private final int[] tableRanks;
+
+    RankTable(Object[] explicitValues) {
+        int capacity = 2;
+        while (capacity < explicitValues.length * 2) capacity <<= 1;
+        Object[] table = new Object[capacity];
+        int[] tableRanks = new int[capacity];
+        final int size = fill(explicitValues, table, tableRanks, DEFAULT_SEED);
+        this.values = distinctValues(table, tableRanks, size);
+
+        int perfectSeed = 0;
+        if (size > 1 && size <= PERFECT_HASH_LIMIT) {
+            capacity = 2;
+            while (capacity < size * 2) capacity <<= 1;
+            for (int attempt = 0; perfectSeed == 0 && attempt < 3 * SEED_ATTEMPTS; attempt++) {
+                if (attempt > 0 && attempt % SEED_ATTEMPTS == 0) capacity <<= 1; // sparser table, fewer collisions
+                final int candidate = (DEFAULT_SEED + attempt * 0x6A09E666) | 1;
+                if (isPerfect(capacity, candidate)) perfectSeed = candidate;
+            }
+            if (perfectSeed != 0) {
+                table = new Object[capacity];
+                tableRanks = new int[capacity];
+                fill(values, table, tableRanks, perfectSeed);
+            }
+        }
+        this.table = table;
+        this.tableRanks = tableRanks;
+        this.perfect = perfectSeed != 0 || size < 2;
+        this.seed = perfectSeed != 0 ? perfectSeed : DEFAULT_SEED;
+    }
+
+    /**
+     * Fill an empty table with the given values, skipping duplicates.
+     *
+     * @return The number of distinct values.
+     */
+    private static int fill(Object[] explicitValues, Object[] table, int[] tableRanks, int hashSeed) {
+        final int capacity = table.length;
+        int size = 0;
+        for (Object value : explicitValues) {
+            int index = indexFor(value, hashSeed, capacity);
+            while (tableRanks[index] != 0 && !matches(value, table[index])) index = (index + 1) & (capacity - 1);
+            if (tableRanks[index] == 0) {
+                table[index] = value;
+                tableRanks[index] = ++size;
+            }
+        }
+        return size;
+    }
+
+    private static Object[] distinctValues(Object[] table, int[] tableRanks, int size) {
+        final Object[] distinct = new Object[size];
+        for (int index = 0; index < table.length; index++) {
+            if (tableRanks[index] != 0) distinct[tableRanks[index] - 1] = table[index];
+        }
+        return distinct;
+    }
+
+    private boolean isPerfect(int capacity, int hashSeed) {
+        final boolean[] occupied = new boolean[capacity];
+        for (Object value : values) {
+            final int index = indexFor(value, hashSeed, capacity);
+            if (occupied[index]) return false;
+            occupied[index] = true;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of distinct values.
+     */
+    int size() {
+        return values.length;
+    }
+
+    /**
+     * @param rank The rank of the value.
+     * @return The distinct value with the given rank.
+     */
+    Object valueAt(int rank) {
+        return values[rank];
+    }
+
+    /**
+     * @return Whether lookups are resolved with a single table probe.
+     */
+    boolean isPerfect() {
+        return perfect;
+    }
+
+    /**
+     * @param value The value to look up.
+     * @return The rank of the value, or {@code -1} if it is not one of the explicit values.
+     */
+    int rankOf(Object value) {
+        final int mask = table.length - 1;
+        int index = indexFor(value, seed, table.length);
+        if (perfect) {
+            final int rank = tableRanks[index];
+            return rank != 0 && matches(value, table[index]) ? rank - 1 : -1;
+        }
+        for (int rank; (rank = tableRanks[index]) != 0; index = (index + 1) & mask) {
+            if (matches(value, table[index])) return rank - 1;
+        }
+        return -1;
+    }
+
+    private static int indexFor(Object value, int hashSeed, int capacity) {
+        final int hash = (value == null ? 0 : value.hashCode()) * hashSeed;
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+
+    private static boolean matches(Object value, Object tableValue) {
+        return value == tableValue || (value != null && value.equals(tableValue));
+    }
+}
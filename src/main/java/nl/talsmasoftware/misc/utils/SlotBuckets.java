@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Accumulator collecting values into a bucket per slot of a comparator.
+ * <p>
+ * Every value is classified exactly once. Buckets of unordered slots simply keep their values in encounter order,
+ * only buckets of ordered slots are sorted, and only when the sorted result is requested.
+ *
+ * @param <T> The type of the accumulated values.
+ * @see FirstLastComparator#toSortedList(Comparator)
+ */
+final class SlotBuckets<T> {
+    private final SlotOrder<T> order;
+
+    /**
+     * The values per slot, created when the first value for the slot is added.
+     */
+    private final List<Object>[] values;
+
+    /**
+     * The keys of the values in ordered slots, only if the keys differ from the values themselves.
+     */
+    private final List<Object>[] keys;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SlotBuckets(SlotOrder<T> order) {
+        this.order = order;
+        this.values = new List[order.slotCount()];
+        this.keys = order.extractsKeys() ? new List[order.slotCount()] : null;
+    }
+
+    SlotBuckets(Comparator<? super T> comparator) {
+        this(SlotOrder.of(comparator));
+    }
+
+    /**
+     * Add a value to the bucket of its slot.
+     *
+     * @param value The value to add.
+     */
+    void add(T value) {
+        final Object key = order.keyOf(value);
+        add(key, order.slotOf(key), value);
+    }
+
+    /**
+     * Add an already classified value to the bucket of its slot.
+     *
+     * @param key   The key of the value.
+     * @param slot  The slot of the key.
+     * @param value The value to add.
+     */
+    void add(Object key, int slot, T value) {
+        if (values[slot] == null) values[slot] = new ArrayList<>();
+        values[slot].add(value);
+        if (keys != null && order.isOrderedSlot(slot)) {
+            if (keys[slot] == null) keys[slot] = new ArrayList<>();
+            keys[slot].add(key);
+        }
+    }
+
+    /**
+     * Combine the values of another accumulator, that were encountered <em>after</em> the values of this accumulator.
+     *
+     * @param other The other accumulator.
+     * @return This accumulator, now containing the values of both.
+     */
+    SlotBuckets<T> combine(SlotBuckets<T> other) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (other.values[slot] != null) {
+                if (values[slot] == null) values[slot] = new ArrayList<>(other.values[slot].size());
+                values[slot].addAll(other.values[slot]);
+            }
+            if (keys != null && other.keys[slot] != null) {
+                if (keys[slot] == null) keys[slot] = new ArrayList<>(other.keys[slot].size());
+                keys[slot].addAll(other.keys[slot]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return All values in the order of the comparator.
+     */
+    List<T> toList() {
+        return toList(0, values.length);
+    }
+
+    /**
+     * @param fromSlot The first slot (inclusive) to return the values of.
+     * @param toSlot   The last slot (exclusive) to return the values of.
+     * @return The values of the slots in the order of the comparator.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList(int fromSlot, int toSlot) {
+        int size = 0;
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            if (values[slot] != null) size += values[slot].size();
+        }
+        final List<T> result = new ArrayList<>(size);
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            if (values[slot] == null) continue;
+            if (values[slot].size() > 1 && order.isOrderedSlot(slot)) {
+                final Object[] slotValues = values[slot].toArray();
+                final Object[] slotKeys = keys != null ? keys[slot].toArray() : slotValues;
+                order.sortByKeys(slotValues, slotKeys, 0, slotValues.length, false);
+                for (Object value : slotValues) {
+                    result.add((T) value);
+                }
+            } else {
+                result.addAll((List<T>) values[slot]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterator merging sources that are each sorted by the delegate order of a comparator.
+ * <p>
+ * The 'other' values of all sources are merged lazily with a heap, comparing only their keys.
+ * Explicit values are taken out of the sources as they are encountered and collected in {@link SlotBuckets}.
+ * The values sorted last are returned after all sources are exhausted.
+ * If there are values sorted first, all sources must be exhausted before the first value can be returned,
+ * so the merged 'other' values are buffered.
+ *
+ * @param <T> The type of the merged values.
+ * @see FirstLastComparator#merge(List, Comparator)
+ */
+final class SlotMergeIterator<T> implements Iterator<T> {
+    private final SlotOrder<T> order;
+    private final List<Source> sources;
+    private PriorityQueue<Source> queue;
+    private SlotBuckets<T> pinned;
+    private Iterator<T> current = Collections.emptyIterator();
+    private int phase;
+
+    SlotMergeIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        this.order = SlotOrder.of(comparator);
+        this.sources = new ArrayList<>(sources.size());
+        for (Iterator<? extends T> source : sources) {
+            this.sources.add(new Source(this.sources.size(), source));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            switch (phase++) {
+                case 0:
+                    queue = new PriorityQueue<>(Math.max(1, sources.size()), (source1, source2) -> {
+                        final int result = order.compareKeys(source1.key, source2.key);
+                        return result != 0 ? result : Integer.compare(source1.index, source2.index);
+                    });
+                    for (Source source : sources) {
+                        if (source.advance()) queue.add(source);
+                    }
+                    if (order.otherSlot() == 0) {
+                        current = new Merged();
+                    } else {
+                        final List<T> merged = new ArrayList<>();
+                        new Merged().forEachRemaining(merged::add);
+                        final List<T> values = pinned().toList(0, order.otherSlot());
+                        values.addAll(merged);
+                        current = values.iterator();
+                    }
+                    break;
+                case 1:
+                    current = pinned().toList(order.otherSlot() + 1, order.slotCount()).iterator();
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * The explicit values of all sources, in source order. Only call this after all sources are exhausted.
+     */
+    private SlotBuckets<T> pinned() {
+        if (pinned == null) {
+            pinned = new SlotBuckets<>(order);
+            for (Source source : sources) {
+                pinned.combine(source.pinned);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Lazy heap merge of the 'other' values of all sources.
+     */
+    private final class Merged implements Iterator<T> {
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            final Source source = queue.poll();
+            if (source == null) throw new NoSuchElementException();
+            final T value = source.value;
+            if (source.advance()) queue.add(source);
+            return value;
+        }
+    }
+
+    /**
+     * A source positioned at its next 'other' value.
+     */
+    private final class Source {
+        private final int index;
+        private final Iterator<? extends T> values;
+        private final SlotBuckets<T> pinned;
+        private T value;
+        private Object key;
+
+        private Source(int index, Iterator<? extends T> values) {
+            this.index = index;
+            this.values = values;
+            this.pinned = new SlotBuckets<>(order);
+        }
+
+        /**
+         * Advance to the next 'other' value, collecting any explicit values on the way.
+         *
+         * @return {@code true} if there is a next 'other' value, {@code false} if the source is exhausted.
+         */
+        private boolean advance() {
+            final int otherSlot = order.otherSlot();
+            while (values.hasNext()) {
+                final T next = values.next();
+                final Object nextKey = order.keyOf(next);
+                final int slot = order.slotOf(nextKey);
+                if (slot == otherSlot) {
+                    value = next;
+                    key = nextKey;
+                    return true;
+                }
+                pinned.add(nextKey, slot, next);
+            }
+            value = null;
+            key = null;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * The order of a comparator, expressed as consecutive 'slots' of values.
+ * <p>
+ * For a {@link FirstLastComparator}, every explicit value occupies its own slot,
+ * while all other values share a single slot that is ordered by the delegate comparator.
+ * Any other comparator has only a single, ordered, slot.
+ * <p>
+ * For comparators created by {@link FirstLastComparator#comparing(Function, Comparator)},
+ * values are classified by their extracted key. Algorithms that need to look at a value more than once
+ * should therefore extract its {@linkplain #keyOf(Object) key} and {@linkplain #slotOf(Object) slot} only once.
+ *
+ * @param <T> The type of the ordered values.
+ */
+final class SlotOrder<T> {
+    /**
+     * Extracts the key from a value, or {@code null} if values are their own key.
+     */
+    private final Function<? super T, ?> keyExtractor;
+
+    /**
+     * The comparator defining the slots for the keys, or {@code null} if there is only one slot.
+     */
+    private final FirstLastComparator<?> slots;
+
+    /**
+     * Comparator for keys within the same ordered slot.
+     */
+    private final Comparator<Object> keyComparator;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private SlotOrder(Function<? super T, ?> keyExtractor, Comparator<?> comparator) {
+        this.keyExtractor = keyExtractor;
+        final Comparator<?> keyComparator = LiveFirstLastComparator.snapshotOf(comparator); // one snapshot per order
+        if (keyComparator instanceof FirstLastComparator) {
+            this.slots = (FirstLastComparator<?>) keyComparator;
+            this.keyComparator = (Comparator<Object>) slots.delegate();
+        } else {
+            this.slots = null;
+            this.keyComparator = keyComparator != null ? (Comparator<Object>) keyComparator : (Comparator) Comparator.naturalOrder();
+        }
+    }
+
+    /**
+     * Determine the slot order of a comparator.
+     *
+     * @param comparator The comparator (or {@code null} for natural ordering).
+     * @param <T>        The type of the ordered values.
+     * @return The slot order of the comparator.
+     */
+    static <T> SlotOrder<T> of(Comparator<? super T> comparator) {
+        if (comparator instanceof KeyExtractingComparator) {
+            final KeyExtractingComparator<? super T, ?> keyExtracting = (KeyExtractingComparator<? super T, ?>) comparator;
+            return new SlotOrder<>(keyExtracting.keyExtractor, keyExtracting.keyComparator);
+        }
+        return new SlotOrder<>(null, comparator);
+    }
+
+    /**
+     * @param value The value to get the sort key for.
+     * @return The key to classify and compare the value by.
+     */
+    Object keyOf(T value) {
+        return keyExtractor == null ? value : keyExtractor.apply(value);
+    }
+
+    /**
+     * @return {@code true} if values are classified and compared by an extracted key,
+     * {@code false} if values are their own key.
+     */
+    boolean extractsKeys() {
+        return keyExtractor != null;
+    }
+
+    /**
+     * @return The number of slots.
+     */
+    int slotCount() {
+        return slots == null ? 1 : slots.slotCount();
+    }
+
+    /**
+     * @param key The key to classify.
+     * @return The slot of the key, between {@code 0} and {@link #slotCount()} (exclusive).
+     */
+    int slotOf(Object key) {
+        return slots == null ? 0 : slots.slotOf(key);
+    }
+
+    /**
+     * @return The slot shared by all values that are not explicitly sorted first or last.
+     */
+    int otherSlot() {
+        return slots == null ? 0 : slots.otherSlot();
+    }
+
+    /**
+     * @param slot The slot to check.
+     * @return {@code true} if keys within the slot must be compared, {@code false} if they are all equal.
+     */
+    boolean isOrderedSlot(int slot) {
+        return slots == null ? !FirstLastComparator.isEncounterOrder(keyComparator) : slots.isOrderedSlot(slot);
+    }
+
+    /**
+     * @return The comparator for keys within the same ordered slot.
+     */
+    Comparator<Object> keyComparator() {
+        return keyComparator;
+    }
+
+    /**
+     * Compare two keys that are known to be in the same ordered slot.
+     *
+     * @param key1 The first key to be compared.
+     * @param key2 The second key to be compared.
+     * @return a negative integer, zero, or a positive integer
+     * as the first key is less than, equal to, or greater than the second.
+     */
+    int compareKeys(Object key1, Object key2) {
+        return keyComparator.compare(key1, key2);
+    }
+
+    /**
+     * Compare two keys by their already known slots, only comparing the keys if they share an ordered slot.
+     *
+     * @param key1  The first key to be compared.
+     * @param slot1 The slot of the first key.
+     * @param key2  The second key to be compared.
+     * @param slot2 The slot of the second key.
+     * @return a negative integer, zero, or a positive integer
+     * as the first key is less than, equal to, or greater than the second.
+     */
+    int compare(Object key1, int slot1, Object key2, int slot2) {
+        if (slot1 != slot2) return slot1 < slot2 ? -1 : 1;
+        return isOrderedSlot(slot1) ? keyComparator.compare(key1, key2) : 0;
+    }
+
+    /**
+     * Sort values by extracting and classifying each key only once,
+     * and sorting only the ordered slots using the key comparator.
+     * <p>
+     * The values are distributed over their slots with a stable counting sort.
+     *
+     * @param values   The values to sort in-place.
+     * @param parallel Whether to use parallel sub-tasks.
+     */
+    void sort(Object[] values, boolean parallel) {
+        if (values.length < 2) return;
+        sort(values, keysOf(values, parallel), parallel);
+    }
+
+    /**
+     * Extract the keys of values.
+     *
+     * @param values   The values to extract the keys from.
+     * @param parallel Whether to use parallel sub-tasks.
+     * @return The keys of the values, or the {@code values} array itself if values are their own key.
+     */
+    @SuppressWarnings("unchecked")
+    Object[] keysOf(Object[] values, boolean parallel) {
+        if (keyExtractor == null) return values;
+        final Object[] keys = new Object[values.length];
+        if (parallel) Arrays.parallelSetAll(keys, i -> keyExtractor.apply((T) values[i]));
+        else Arrays.setAll(keys, i -> keyExtractor.apply((T) values[i]));
+        return keys;
+    }
+
+    /**
+     * Sort values by their already extracted keys, classifying each key only once,
+     * and sorting only the ordered slots using the key comparator.
+     *
+     * @param values   The values to sort in-place.
+     * @param keys     The keys of the values, reordered along with the values.
+     *                 This may be the {@code values} array itself.
+     * @param parallel Whether to use parallel sub-tasks.
+     * @return The offsets of the slots in the sorted values; slot {@code s} ranges from
+     * {@code offsets[s]} (inclusive) to {@code offsets[s + 1]} (exclusive).
+     */
+    int[] sort(Object[] values, Object[] keys, boolean parallel) {
+        final int slotCount = slotCount();
+        if (slotCount == 1) {
+            if (values.length > 1 && isOrderedSlot(0)) sortByKeys(values, keys, 0, values.length, parallel);
+            return new int[]{0, values.length};
+        }
+
+        final int[] slots = new int[keys.length];
+        if (parallel) Arrays.parallelSetAll(slots, i -> slotOf(keys[i]));
+        else Arrays.setAll(slots, i -> slotOf(keys[i]));
+        final int[] offsets = new int[slotCount + 1];
+        for (int slot : slots) {
+            offsets[slot + 1]++;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            offsets[slot + 1] += offsets[slot];
+        }
+
+        final Object[] valuesCopy = values.clone();
+        final Object[] keysCopy = keys == values ? valuesCopy : keys.clone();
+        final int[] positions = Arrays.copyOf(offsets, slotCount);
+        for (int i = 0; i < slots.length; i++) {
+            final int position = positions[slots[i]]++;
+            values[position] = valuesCopy[i];
+            keys[position] = keysCopy[i];
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (offsets[slot + 1] - offsets[slot] > 1 && isOrderedSlot(slot)) {
+                sortByKeys(values, keys, offsets[slot], offsets[slot + 1], parallel);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Stable sort of a range of values by their corresponding keys.
+     *
+     * @param values    The values to sort in-place.
+     * @param keys      The sort keys of the values, reordered along with the values.
+     *                  This may be the {@code values} array itself.
+     * @param fromIndex The index of the first element (inclusive) to be sorted.
+     * @param toIndex   The index of the last element (exclusive) to be sorted.
+     * @param parallel  Whether to use parallel sub-tasks.
+     */
+    void sortByKeys(Object[] values, Object[] keys, int fromIndex, int toIndex, boolean parallel) {
+        if (keys == values) {
+            if (parallel) Arrays.parallelSort(values, fromIndex, toIndex, keyComparator);
+            else Arrays.sort(values, fromIndex, toIndex, keyComparator);
+            return;
+        }
+        final Object[][] pairs = new Object[toIndex - fromIndex][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new Object[]{keys[fromIndex + i], values[fromIndex + i]};
+        }
+        final Comparator<Object[]> pairComparator = (p1, p2) -> keyComparator.compare(p1[0], p2[0]);
+        if (parallel) Arrays.parallelSort(pairs, pairComparator);
+        else Arrays.sort(pairs, pairComparator);
+        for (int i = 0; i < pairs.length; i++) {
+            keys[fromIndex + i] = pairs[i][0];
+            values[fromIndex + i] = pairs[i][1];
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator returning the values of a source spliterator in the order of a comparator.
+ * <p>
+ * Values in the first slot are passed through as soon as they are encountered if that slot is not ordered,
+ * for example the 'other' values when sorting values last in {@link FirstLastComparator#encounterOrder()}.
+ * All other values are collected in {@link SlotBuckets} until the source is exhausted.
+ *
+ * @param <T> The type of the sorted values.
+ * @see FirstLastComparator#sorted(java.util.stream.Stream, Comparator)
+ */
+final class SlotSortingSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    private final Spliterator<T> source;
+    private final SlotOrder<T> order;
+    private final boolean passThroughFirstSlot;
+    private SlotBuckets<T> buckets;
+    private Iterator<T> sorted;
+
+    private T passed;
+    private boolean hasPassed;
+
+    SlotSortingSpliterator(Spliterator<T> source, Comparator<? super T> comparator) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.source = source;
+        this.order = SlotOrder.of(comparator);
+        this.passThroughFirstSlot = !order.isOrderedSlot(0);
+        this.buckets = new SlotBuckets<>(order);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (sorted == null) {
+            while (source.tryAdvance(this::accept)) {
+                if (hasPassed) {
+                    final T value = passed;
+                    passed = null;
+                    hasPassed = false;
+                    action.accept(value);
+                    return true;
+                }
+            }
+            sorted = buckets.toList().iterator();
+            buckets = null;
+        }
+        if (sorted.hasNext()) {
+            action.accept(sorted.next());
+            return true;
+        }
+        return false;
+    }
+
+    private void accept(T value) {
+        final Object key = order.keyOf(value);
+        final int slot = order.slotOf(key);
+        if (slot == 0 && passThroughFirstSlot) {
+            passed = value;
+            hasPassed = true;
+        } else {
+            buckets.add(key, slot, value);
+        }
+    }
+}
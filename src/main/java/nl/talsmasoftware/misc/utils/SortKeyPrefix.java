@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Normalized, fixed-width {@code long} prefix of the sort key of a value.
+ * <p>
+ * The most significant bits of the prefix contain the {@linkplain SlotOrder slot} of the value.
+ * For values in an ordered slot, the remaining bits contain the most significant bits
+ * of a prefix derived from the delegate order, if known.
+ * <p>
+ * If the prefix of one value is less than the prefix of another value, the value is sorted before the other value.
+ * Values with equal prefixes must still be compared.
+ *
+ * @param <T> The type of the ordered values.
+ */
+final class SortKeyPrefix<T> implements ToLongFunction<T> {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private final SlotOrder<T> order;
+    private final int slotBits;
+
+    /**
+     * Prefix of the value itself, or {@code null} if it is derived from the key.
+     */
+    private final ToLongFunction<? super T> valuePrefix;
+
+    /**
+     * Prefix of the key, derived from the key comparator, or {@code null} if unknown.
+     */
+    private final ToLongFunction<Object> keyPrefix;
+
+    SortKeyPrefix(Comparator<? super T> comparator, ToLongFunction<? super T> valuePrefix) {
+        this.order = SlotOrder.of(comparator);
+        this.slotBits = Long.SIZE - Long.numberOfLeadingZeros(order.slotCount() - 1);
+        this.valuePrefix = valuePrefix;
+        this.keyPrefix = valuePrefix == null ? derivedPrefix(order.keyComparator()) : null;
+    }
+
+    @Override
+    public long applyAsLong(T value) {
+        final Object key = order.keyOf(value);
+        final int slot = order.slotOf(key);
+        long prefix = slotBits == 0 ? 0L : (long) slot << (Long.SIZE - slotBits);
+        if (order.isOrderedSlot(slot)) {
+            final long delegatePrefix = valuePrefix != null ? valuePrefix.applyAsLong(value)
+                    : keyPrefix != null ? keyPrefix.applyAsLong(key) : 0L;
+            prefix |= delegatePrefix >>> slotBits;
+        }
+        return prefix ^ Long.MIN_VALUE; // unsigned to signed order
+    }
+
+    /**
+     * Sort values by their prefix using a radix sort, comparing values only if their prefixes are equal.
+     * <p>
+     * This sort is stable.
+     *
+     * @param values     The values to sort in-place.
+     * @param comparator The comparator for values with equal prefixes.
+     */
+    @SuppressWarnings("unchecked")
+    void sort(Object[] values, Comparator<? super T> comparator) {
+        final int length = values.length;
+        if (length < 2) return;
+        long[] prefixes = new long[length];
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            prefixes[i] = applyAsLong((T) values[i]) ^ Long.MIN_VALUE; // back to unsigned order for the radix
+            indices[i] = i;
+        }
+
+        long[] prefixBuffer = new long[length];
+        int[] indexBuffer = new int[length];
+        final int[] offsets = new int[RADIX + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(offsets, 0);
+            for (long prefix : prefixes) {
+                offsets[(int) (prefix >>> shift) & (RADIX - 1)]++;
+            }
+            if (offsets[(int) (prefixes[0] >>> shift) & (RADIX - 1)] == length) continue; // all equal digits
+            for (int digit = 0, offset = 0; digit < RADIX; digit++) {
+                final int count = offsets[digit];
+                offsets[digit] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < length; i++) {
+                final int position = offsets[(int) (prefixes[i] >>> shift) & (RADIX - 1)]++;
+                prefixBuffer[position] = prefixes[i];
+                indexBuffer[position] = indices[i];
+            }
+            final long[] sortedPrefixes = prefixBuffer;
+            prefixBuffer = prefixes;
+            prefixes = sortedPrefixes;
+            final int[] sortedIndices = indexBuffer;
+            indexBuffer = indices;
+            indices = sortedIndices;
+        }
+
+        final Object[] unsorted = values.clone();
+        for (int i = 0; i < length; i++) {
+            values[i] = unsorted[indices[i]];
+        }
+        for (int from = 0, to; from < length; from = to) {
+            to = from + 1;
+            while (to < length && prefixes[to] == prefixes[from]) to++;
+            if (to - from > 1) Arrays.sort((T[]) values, from, to, comparator);
+        }
+    }
+
+    /**
+     * Derive the prefix for keys from a well-known comparator.
+     *
+     * @param comparator The key comparator.
+     * @return The prefix function, with unsigned order consistent with the comparator,
+     * or {@code null} if the comparator is not known.
+     */
+    private static ToLongFunction<Object> derivedPrefix(Comparator<Object> comparator) {
+        if (Comparator.naturalOrder().equals(comparator)) return SortKeyPrefix::naturalPrefix;
+        else if (Comparator.reverseOrder().equals(comparator)) return key -> ~naturalPrefix(key);
+        return null;
+    }
+
+    /**
+     * @param key The key to determine the prefix for.
+     * @return A prefix with unsigned order consistent with the natural order of the key,
+     * or {@code 0} if the type of the key is not known. Strings are represented by their first four characters.
+     */
+    private static long naturalPrefix(Object key) {
+        if (key instanceof String) {
+            final String string = (String) key;
+            long prefix = 0L;
+            for (int i = 0, shift = 48; i < 4 && i < string.length(); i++, shift -= 16) {
+                prefix |= (long) string.charAt(i) << shift;
+            }
+            return prefix;
+        } else if (key instanceof Long) {
+            return (Long) key ^ Long.MIN_VALUE;
+        } else if (key instanceof Integer) {
+            return (long) ((Integer) key ^ Integer.MIN_VALUE) << 32;
+        } else if (key instanceof Short) {
+            return (long) ((Short) key - Short.MIN_VALUE) << 48;
+        } else if (key instanceof Byte) {
+            return (long) ((Byte) key - Byte.MIN_VALUE) << 56;
+        } else if (key instanceof Character) {
+            return (long) (Character) key << 48;
+        } else if (key instanceof Double || key instanceof Float) {
+            final long bits = Double.doubleToLongBits(((Number) key).doubleValue());
+            return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+        } else if (key instanceof Boolean) {
+            return (Boolean) key ? Long.MIN_VALUE : 0L;
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Accumulator for the first {@code k} values in the order of a comparator.
+ * <p>
+ * Only the best {@code k} values are retained in a bounded heap, along with their key and slot.
+ * Every value is classified exactly once, and values from different slots are compared by their slot only,
+ * so values from a worse slot than the current {@code k} values are rejected without calling the delegate comparator.
+ * <p>
+ * Equal values are retained in their encounter order, as if the values were sorted by a stable sort.
+ *
+ * @param <T> The type of the accumulated values.
+ * @see FirstLastComparator#topK(Iterable, int, Comparator)
+ */
+final class TopK<T> {
+    private final SlotOrder<T> order;
+    private final int k;
+
+    /**
+     * Heap with the retained entries, the 'worst' entry at the head.
+     */
+    private final PriorityQueue<Entry> heap;
+
+    /**
+     * Sequence number of the next value, to keep equal values in encounter order.
+     */
+    private long sequence = 0L;
+
+    TopK(int k, Comparator<? super T> comparator) {
+        if (k < 0) throw new IllegalArgumentException("Number of values to retain is negative: " + k);
+        this.order = SlotOrder.of(comparator);
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), (e1, e2) -> compare(e2, e1));
+    }
+
+    /**
+     * Add a value, retaining it only if it belongs to the first {@code k} values so far.
+     *
+     * @param value The value to add.
+     */
+    void add(T value) {
+        final long seq = sequence++;
+        if (k > 0) {
+            final Object key = order.keyOf(value);
+            offer(new Entry(key, order.slotOf(key), value, seq));
+        }
+    }
+
+    /**
+     * Whether no value that is added from now on can be retained anymore.
+     * <p>
+     * This is the case when all {@code k} retained values are in the first slot and that slot is not ordered.
+     * For example, when sorting values first, this happens after {@code k} occurrences of the first value.
+     *
+     * @return {@code true} if the first {@code k} values are final, otherwise {@code false}.
+     */
+    boolean isComplete() {
+        if (heap.size() < k) return false;
+        final Entry worst = heap.peek();
+        return worst == null || (worst.slot == 0 && !order.isOrderedSlot(0));
+    }
+
+    /**
+     * Combine the values of another accumulator, that were encountered <em>after</em> the values of this accumulator.
+     *
+     * @param other The other accumulator.
+     * @return This accumulator, now containing the first {@code k} values of both.
+     */
+    TopK<T> combine(TopK<T> other) {
+        for (Entry entry : other.heap) {
+            offer(new Entry(entry.key, entry.slot, entry.value, sequence + entry.seq));
+        }
+        sequence += other.sequence;
+        return this;
+    }
+
+    /**
+     * @return The retained values, in the order of the comparator.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        final Entry[] entries = heap.toArray(new Entry[0]);
+        Arrays.sort(entries, this::compare);
+        final List<T> result = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            result.add((T) entry.value);
+        }
+        return result;
+    }
+
+    private void offer(Entry entry) {
+        if (heap.size() < k) {
+            heap.add(entry);
+        } else if (compare(entry, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    private int compare(Entry e1, Entry e2) {
+        final int result = order.compare(e1.key, e1.slot, e2.key, e2.slot);
+        return result != 0 ? result : Long.compare(e1.seq, e2.seq);
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final int slot;
+        private final Object value;
+        private final long seq;
+
+        private Entry(Object key, int slot, Object value, long seq) {
+            this.key = key;
+            this.slot = slot;
+            this.value = value;
+            this.seq = seq;
+        }
+    }
+}
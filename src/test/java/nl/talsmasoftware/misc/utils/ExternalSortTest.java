@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalSortTest {
+    private static final ExternalSort.RecordCodec<String> STRINGS = ExternalSort.RecordCodec.of(DataOutput::writeUTF, DataInput::readUTF);
+
+    private Path tempDirectory;
+
+    @BeforeEach
+    void createTempDirectory() throws IOException {
+        tempDirectory = Files.createTempDirectory("external-sort-test");
+    }
+
+    @AfterEach
+    void deleteTempDirectory() throws IOException {
+        Files.delete(tempDirectory);
+    }
+
+    @Test
+    void sorts_records_in_multiple_runs() throws IOException {
+        // prepare
+        final List<String> records = randomStrings(1000);
+        final Comparator<String> comparator = FirstLastComparator.compareFirstLast(
+                Comparator.naturalOrder(), Arrays.asList("b", "a"), Arrays.asList("c"));
+        final ExternalSort<String> subject = ExternalSort.builder(comparator, STRINGS)
+                .runSize(64).tempDirectory(tempDirectory).build();
+
+        // execute
+        final List<String> result = new ArrayList<>();
+        subject.sort(records.iterator(), result::add);
+
+        // verify
+        assertThat(result, equalTo(FirstLastComparatorTest.sortCopy(comparator, records)));
+        assertThat(listFiles(tempDirectory), equalTo(0L));
+    }
+
+    @Test
+    void sort_is_stable() throws IOException {
+        // prepare
+        final List<String> records = randomStrings(500);
+        final Comparator<String> comparator = FirstLastComparator.comparing(s -> s.charAt(0),
+                FirstLastComparator.compareLast(Comparator.naturalOrder(), 'a'));
+        final ExternalSort<String> subject = ExternalSort.builder(comparator, STRINGS)
+                .runSize(50).tempDirectory(tempDirectory).parallel(false).build();
+
+        // execute
+        final List<String> result = new ArrayList<>();
+        subject.sort(records.iterator(), result::add);
+
+        // verify
+        assertThat(result, equalTo(FirstLastComparatorTest.sortCopy(comparator, records)));
+    }
+
+    @Test
+    void sorts_single_run_in_memory() throws IOException {
+        // prepare
+        final List<String> records = randomStrings(100);
+        final Comparator<String> comparator = FirstLastComparator.compareFirst(Comparator.reverseOrder(), "a");
+        final ExternalSort<String> subject = ExternalSort.builder(comparator, STRINGS)
+                .runSize(100).tempDirectory(tempDirectory).build();
+
+        // execute
+        final List<String> result = new ArrayList<>();
+        subject.sort(records.iterator(), result::add);
+
+        // verify
+        assertThat(result, equalTo(FirstLastComparatorTest.sortCopy(comparator, records)));
+    }
+
+    @Test
+    void run_files_are_deleted_when_writing_fails() throws IOException {
+        // prepare
+        final List<String> records = randomStrings(300);
+        final ExternalSort.RecordCodec<String> failing = ExternalSort.RecordCodec.of((out, record) -> {
+            if (record.equals(records.get(150))) throw new IOException("Disk full");
+            out.writeUTF(record);
+        }, DataInput::readUTF);
+        final ExternalSort<String> subject = ExternalSort.builder(Comparator.<String>naturalOrder(), failing)
+                .runSize(100).tempDirectory(tempDirectory).build();
+
+        // execute
+        final IOException exception = assertThrows(IOException.class, () -> subject.sort(records.iterator(), record -> {
+        }));
+
+        // verify
+        assertThat(exception, hasProperty("message", equalTo("Disk full")));
+        assertThat(listFiles(tempDirectory), equalTo(0L));
+    }
+
+    @Test
+    void close_failures_do_not_replace_the_original_failure() throws IOException {
+        // prepare
+        final List<String> records = randomStrings(300);
+        final ExternalSort.RecordCodec<String> failing = ExternalSort.RecordCodec.of((out, record) -> {
+            if (record.equals(records.get(150))) {
+                replaceRunFilesWithDirectories(); // deleting a run file now fails
+                throw new IOException("Disk full");
+            }
+            out.writeUTF(record);
+        }, DataInput::readUTF);
+        final ExternalSort<String> subject = ExternalSort.builder(Comparator.<String>naturalOrder(), failing)
+                .runSize(100).tempDirectory(tempDirectory).build();
+
+        // execute
+        final IOException exception = assertThrows(IOException.class, () -> subject.sort(records.iterator(), record -> {
+        }));
+
+        // verify
+        assertThat(exception, hasProperty("message", equalTo("Disk full")));
+        assertThat(exception.getSuppressed().length, equalTo(2));
+        assertThat(exception.getSuppressed()[0], instanceOf(DirectoryNotEmptyException.class));
+        deleteRecursively(tempDirectory);
+    }
+
+    @Test
+    void run_size_must_be_positive() {
+        assertThat(assertThrows(IllegalArgumentException.class, () -> ExternalSort.builder(Comparator.<String>naturalOrder(), STRINGS).runSize(0)),
+                hasProperty("message", equalTo("Run size must be positive: 0")));
+        assertThat(assertThrows(NullPointerException.class, () -> ExternalSort.builder(null, STRINGS)),
+                hasProperty("message", equalTo("Comparator is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> ExternalSort.builder(Comparator.<String>naturalOrder(), null)),
+                hasProperty("message", equalTo("Record codec is <null>.")));
+    }
+
+    private static List<String> randomStrings(int count) {
+        final Random random = new Random(42L);
+        final List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(Integer.toString(random.nextInt(5) == 0 ? 10 + random.nextInt(3) : random.nextInt(100000), 36));
+        }
+        return strings;
+    }
+
+    private void replaceRunFilesWithDirectories() throws IOException {
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+                Files.createFile(Files.createDirectory(file).resolve("blocking"));
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                if (!file.equals(directory)) Files.delete(file);
+            }
+        }
+    }
+
+    private static long listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
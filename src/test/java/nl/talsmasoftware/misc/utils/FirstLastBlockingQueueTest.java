@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FirstLastBlockingQueueTest {
+    @Test
+    void elements_are_taken_in_slot_order() {
+        // prepare
+        final FirstLastBlockingQueue<String> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.comparing(s -> s.substring(0, 1),
+                        FirstLastComparator.compareFirstLast(Comparator.naturalOrder(), Arrays.asList("v", "w"), Arrays.asList("a"))));
+
+        // execute
+        subject.addAll(Arrays.asList("d1", "a1", "w1", "b1", "v1", "w2", "a2", "c1", "v2"));
+        final List<String> result = new ArrayList<>();
+        subject.drainTo(result);
+
+        // verify
+        assertThat(result, contains("v1", "v2", "w1", "w2", "b1", "c1", "d1", "a1", "a2"));
+        assertThat(subject.size(), equalTo(0));
+        assertThat(subject.poll(), nullValue());
+    }
+
+    @Test
+    void elements_are_taken_in_slot_order_with_many_lanes() {
+        // prepare
+        final List<Integer> pinned = new ArrayList<>();
+        for (int i = 299; i >= 100; i -= 2) {
+            pinned.add(i);
+        }
+        final Comparator<Integer> comparator = FirstLastComparator.compareFirstLast(
+                Comparator.naturalOrder(), pinned.subList(0, 80), pinned.subList(80, pinned.size()));
+        final FirstLastBlockingQueue<Integer> subject = new FirstLastBlockingQueue<>(comparator);
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(42L));
+
+        // execute
+        subject.addAll(values);
+        final Integer head = subject.peek();
+        final List<Integer> result = new ArrayList<>();
+        for (Integer element = subject.poll(); element != null; element = subject.poll()) {
+            result.add(element);
+        }
+
+        // verify
+        assertThat(head, equalTo(299));
+        assertThat(result, equalTo(FirstLastComparatorTest.sortCopy(comparator, values)));
+    }
+
+    @Test
+    void peek_and_remove_look_at_all_lanes() {
+        // prepare
+        final FirstLastBlockingQueue<Integer> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.compareLast(Comparator.naturalOrder(), 1));
+        subject.addAll(Arrays.asList(1, 5, 3));
+
+        // execute
+        final boolean removed = subject.remove(3);
+        final boolean removedMissing = subject.remove(4);
+
+        // verify
+        assertThat(removed, equalTo(true));
+        assertThat(removedMissing, equalTo(false));
+        assertThat(subject.peek(), equalTo(5));
+        assertThat(subject, contains(5, 1));
+        assertThat(subject.size(), equalTo(2));
+    }
+
+    @Test
+    void iterator_removes_elements_from_their_lane() {
+        // prepare
+        final FirstLastBlockingQueue<Integer> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.compareFirstLast(Comparator.naturalOrder(), Arrays.asList(2), Arrays.asList(1)));
+        subject.addAll(Arrays.asList(1, 6, 2, 4, 3, 2, 5));
+
+        // execute
+        final boolean removed = subject.removeIf(i -> i % 2 == 0);
+        subject.retainAll(Arrays.asList(1, 3));
+        final Iterator<Integer> iterator = subject.iterator();
+        iterator.next();
+        iterator.remove();
+
+        // verify
+        assertThat(removed, equalTo(true));
+        assertThat(subject, contains(1));
+        assertThat(subject.size(), equalTo(1));
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertThat(subject.poll(), equalTo(1));
+        assertThat(subject.poll(), nullValue());
+    }
+
+    @Test
+    void iterator_removes_the_returned_instance() {
+        // prepare
+        final FirstLastBlockingQueue<String> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), "vip"));
+        final String first = new String("vip");
+        final String second = new String("vip");
+        subject.addAll(Arrays.asList(first, "other", second));
+
+        // execute
+        final Iterator<String> iterator = subject.iterator();
+        iterator.next();
+        iterator.next();
+        iterator.remove();
+
+        // verify
+        assertThat(subject.size(), equalTo(2));
+        assertThat(subject.poll(), sameInstance(first));
+        assertThat(subject.poll(), equalTo("other"));
+        assertThat(subject.poll(), nullValue());
+    }
+
+    @Test
+    void remove_and_poll_concurrently_remove_every_element_once() throws Exception {
+        // prepare
+        final FirstLastBlockingQueue<Integer> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), 0, 1, 2));
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(i);
+        }
+        subject.addAll(values);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // execute
+            final List<Future<List<Integer>>> consumers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                consumers.add(executor.submit(() -> {
+                    final List<Integer> polled = new ArrayList<>();
+                    for (Integer element = subject.poll(); element != null; element = subject.poll()) {
+                        polled.add(element);
+                    }
+                    return polled;
+                }));
+            }
+            final Future<List<Integer>> remover = executor.submit(() -> {
+                final List<Integer> removed = new ArrayList<>();
+                for (int i = values.size() - 1; i >= 0; i -= 2) {
+                    if (subject.remove(i)) removed.add(i);
+                }
+                return removed;
+            });
+
+            // verify
+            final List<Integer> result = new ArrayList<>(remover.get(10, TimeUnit.SECONDS));
+            for (Future<List<Integer>> consumer : consumers) {
+                result.addAll(consumer.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(result, containsInAnyOrder(values.toArray(new Integer[0])));
+            assertThat(subject.size(), equalTo(0));
+            assertThat(subject.poll(), nullValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void take_waits_for_concurrently_offered_elements() throws Exception {
+        // prepare
+        final FirstLastBlockingQueue<Integer> subject = new FirstLastBlockingQueue<>(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), 0));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<Integer>>> consumers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                consumers.add(executor.submit(() -> {
+                    final List<Integer> taken = new ArrayList<>();
+                    for (int j = 0; j < 500; j++) {
+                        taken.add(subject.take());
+                    }
+                    return taken;
+                }));
+            }
+
+            // execute
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        subject.put(j % 10);
+                    }
+                });
+            }
+
+            // verify
+            final List<Integer> taken = new ArrayList<>();
+            for (Future<List<Integer>> consumer : consumers) {
+                taken.addAll(consumer.get(10, TimeUnit.SECONDS));
+            }
+            final List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < 1000; j++) {
+                expected.add(j % 10);
+            }
+            assertThat(taken, containsInAnyOrder(expected.toArray(new Integer[0])));
+            assertThat(subject.poll(10, TimeUnit.MILLISECONDS), nullValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void null_elements_are_not_permitted() {
+        final FirstLastBlockingQueue<String> subject = new FirstLastBlockingQueue<>(Comparator.naturalOrder());
+        assertThat(assertThrows(NullPointerException.class, () -> subject.offer(null)),
+                hasProperty("message", equalTo("Element is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> new FirstLastBlockingQueue<String>(null)),
+                hasProperty("message", equalTo("Comparator is <null>.")));
+    }
+}
@@ -17,18 +17,42 @@ package nl.talsmasoftware.misc.utils;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class FirstLastComparatorTest {
@@ -95,6 +119,18 @@ class FirstLastComparatorTest {
         assertThat(result, equalTo("        Tbcdeeefghhijklmnpqstuuvwxyzoooorra"));
     }
 
+    @Test
+    void duplicate_values_keep_their_first_position() {
+        // prepare
+        final Comparator<Character> subject = FirstLastComparator.compareFirst(Comparator.naturalOrder(), 'r', 'o', 'r', 'a', 'o');
+
+        // execute
+        final String result = sortString(subject, "The quick brown fox jumps over the lazy dog");
+
+        // verify
+        assertThat(result, equalTo("rrooooa        Tbcdeeefghhijklmnpqstuuvwxyz"));
+    }
+
     @Test
     void test_nullsafe_compare() {
         // prepare
@@ -113,6 +149,588 @@ class FirstLastComparatorTest {
         assertThat(result4, contains("    ", "aaaa", "first", "zzzz", "last", null, null));
     }
 
+    @Test
+    void builder_returns_interned_comparators() {
+        // prepare
+        final Comparator<Character> natural = Comparator.naturalOrder();
+
+        // execute
+        final Comparator<Character> subject = FirstLastComparator.builder(natural).first('o', 'r').first('a').build();
+        final Comparator<Character> same = FirstLastComparator.builder(natural).first(Arrays.asList('o', 'r', 'a')).build();
+        final Comparator<Character> other = FirstLastComparator.builder(natural).last('o', 'r', 'a').build();
+
+        // verify
+        assertThat(sortString(subject, "The quick brown fox jumps over the lazy dog"),
+                equalTo("oooorra        Tbcdeeefghhijklmnpqstuuvwxyz"));
+        assertThat(sortString(other, "The quick brown fox jumps over the lazy dog"),
+                equalTo("        Tbcdeeefghhijklmnpqstuuvwxyzoooorra"));
+        assertThat(same, sameInstance(subject));
+        assertThat(other, not(sameInstance(subject)));
+    }
+
+    @Test
+    void frequently_built_comparators_stay_interned() {
+        // prepare
+        final Comparator<Integer> natural = Comparator.naturalOrder();
+        final Comparator<Integer> hot = FirstLastComparator.builder(natural).first(-1).build();
+
+        // execute + verify
+        for (int i = 0; i < 1000; i++) {
+            FirstLastComparator.builder(natural).first(i).build();
+            assertThat(FirstLastComparator.builder(natural).first(-1).build(), sameInstance(hot));
+        }
+    }
+
+    @Test
+    void small_value_sets_with_colliding_hashcodes_are_ranked_correctly() {
+        // prepare
+        final List<String> values = Arrays.asList("zz", "AaBB", "BBAa", null, "Aa", "BB", "AaAa", "x", "BBBB");
+        final Comparator<String> subject = FirstLastComparator.compareFirst(
+                Comparator.nullsFirst(Comparator.<String>naturalOrder()), "BB", "AaAa", null, "Aa", "BBBB");
+
+        // execute
+        final List<String> result = sortCopy(subject, values);
+
+        // verify
+        assertThat(result, contains("BB", "AaAa", null, "Aa", "BBBB", "AaBB", "BBAa", "x", "zz"));
+    }
+
+    @Test
+    void forEnum_sorts_constants_by_precomputed_order() {
+        // prepare
+        final List<TimeUnit> values = Arrays.asList(TimeUnit.values());
+        final Comparator<TimeUnit> expected = FirstLastComparator.compareFirst(Comparator.reverseOrder(), TimeUnit.MINUTES, TimeUnit.SECONDS);
+
+        // execute
+        final Comparator<TimeUnit> subject = FirstLastComparator.forEnum(TimeUnit.class, Comparator.reverseOrder(), TimeUnit.MINUTES, TimeUnit.SECONDS);
+
+        // verify
+        assertThat(sortCopy(subject, values), contains(TimeUnit.MINUTES, TimeUnit.SECONDS,
+                TimeUnit.DAYS, TimeUnit.HOURS, TimeUnit.MILLISECONDS, TimeUnit.MICROSECONDS, TimeUnit.NANOSECONDS));
+        for (TimeUnit first : values) {
+            for (TimeUnit second : values) {
+                assertThat(Integer.signum(subject.compare(first, second)), equalTo(Integer.signum(expected.compare(first, second))));
+            }
+        }
+    }
+
+    @Test
+    void precompute_provides_sort_keys_for_the_domain() {
+        // prepare
+        final List<String> domain = Arrays.asList("USD", "EUR", "gbp", "GBP", "JPY", "EUR", null);
+        final Comparator<String> comparator = FirstLastComparator.compareFirst(
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER), "EUR", "USD");
+
+        // execute
+        final PrecomputedComparator<String> subject = FirstLastComparator.precompute(domain, comparator);
+
+        // verify
+        assertThat(sortCopy(subject, domain), contains("EUR", "EUR", "USD", "gbp", "GBP", "JPY", null));
+        assertThat(subject.sortKey("EUR"), equalTo(0));
+        assertThat(subject.sortKey("USD"), equalTo(1));
+        assertThat(subject.sortKey("GBP"), equalTo(subject.sortKey("gbp")));
+        assertThat(subject.sortKey(null), equalTo(4));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> subject.compare("EUR", "CHF")),
+                hasProperty("message", equalTo("Value is not part of the precomputed domain: CHF")));
+    }
+
+    @Test
+    void sortKeyPrefix_is_consistent_with_comparator() {
+        // prepare
+        final Random random = new Random(42L);
+        final List<Integer> numbers = new ArrayList<>();
+        final List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(random.nextInt(200) - 100);
+            strings.add(Integer.toString(random.nextInt(100000), 36));
+        }
+        final List<Comparator<Integer>> numberComparators = Arrays.asList(
+                FirstLastComparator.compareFirstLast(Comparator.naturalOrder(), Arrays.asList(7, -3), Arrays.asList(0, 99)),
+                FirstLastComparator.compareLast(Comparator.reverseOrder(), 42),
+                FirstLastComparator.compareFirst(Comparator.comparing(Math::abs), 5),
+                Comparator.naturalOrder());
+        final Comparator<String> stringComparator = FirstLastComparator.comparing(s -> s.substring(0, 1),
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), "z", "a"));
+
+        for (Comparator<Integer> comparator : numberComparators) {
+            // execute
+            final ToLongFunction<Integer> prefix = FirstLastComparator.sortKeyPrefix(comparator);
+            final Integer[] sorted = numbers.toArray(new Integer[0]);
+            FirstLastComparator.radixSort(sorted, comparator);
+
+            // verify
+            assertThat(Arrays.asList(sorted), equalTo(sortCopy(comparator, numbers)));
+            for (int i = 1; i < numbers.size(); i++) {
+                final Integer first = numbers.get(i - 1), second = numbers.get(i);
+                if (prefix.applyAsLong(first) < prefix.applyAsLong(second)) {
+                    assertThat(comparator.compare(first, second), lessThan(0));
+                }
+            }
+        }
+        final String[] sortedStrings = strings.toArray(new String[0]);
+        FirstLastComparator.radixSort(sortedStrings, stringComparator);
+        assertThat(Arrays.asList(sortedStrings), equalTo(sortCopy(stringComparator, strings)));
+        assertThat(FirstLastComparator.sortKeyPrefix(stringComparator).applyAsLong("zoo"),
+                lessThan(FirstLastComparator.sortKeyPrefix(stringComparator).applyAsLong("apple")));
+    }
+
+    @Test
+    void sortKeyPrefix_uses_custom_delegate_prefix() {
+        // prepare
+        final Comparator<String> comparator = FirstLastComparator.compareLast(Comparator.comparingInt(String::length), "");
+        final ToLongFunction<String> byLength = s -> (long) s.length() << 32;
+
+        // execute
+        final ToLongFunction<String> subject = FirstLastComparator.sortKeyPrefix(comparator, byLength);
+
+        // verify
+        assertThat(subject.applyAsLong("a"), lessThan(subject.applyAsLong("bb")));
+        assertThat(subject.applyAsLong("bb"), equalTo(subject.applyAsLong("cc")));
+        assertThat(subject.applyAsLong("a very long value"), lessThan(subject.applyAsLong("")));
+    }
+
+    @Test
+    void merge_gives_same_result_as_sorting_all_sources() {
+        // prepare
+        final Random random = new Random(42L);
+        final List<List<Integer>> shards = new ArrayList<>();
+        final List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final List<Integer> shard = new ArrayList<>();
+            for (int j = random.nextInt(50); j > 0; j--) {
+                shard.add(random.nextInt(40));
+            }
+            shard.sort(Comparator.naturalOrder());
+            shards.add(shard);
+            all.addAll(shard);
+        }
+        final Comparator<Integer> comparator = FirstLastComparator.compareFirstLast(
+                Comparator.naturalOrder(), Arrays.asList(30, 3), Arrays.asList(0, 20));
+
+        // execute
+        final List<Integer> result = new ArrayList<>();
+        FirstLastComparator.merge(shards.stream().map(List::iterator).collect(toList()), comparator)
+                .forEachRemaining(result::add);
+
+        // verify
+        assertThat(result, equalTo(sortCopy(comparator, all)));
+    }
+
+    @Test
+    void merge_is_lazy_without_first_values() {
+        // prepare
+        final AtomicInteger consumed = new AtomicInteger();
+        final List<Iterator<Integer>> shards = Arrays.asList(
+                Stream.iterate(0, i -> i + 2).peek(i -> consumed.incrementAndGet()).iterator(),
+                Stream.iterate(1, i -> i + 2).peek(i -> consumed.incrementAndGet()).iterator());
+        final Comparator<Integer> comparator = FirstLastComparator.compareLast(Comparator.naturalOrder(), 2, 3);
+
+        // execute
+        final Iterator<Integer> result = FirstLastComparator.merge(shards, comparator);
+
+        // verify
+        assertThat(Arrays.asList(result.next(), result.next(), result.next(), result.next()), contains(0, 1, 4, 5));
+        assertThat(consumed.get(), lessThan(10));
+    }
+
+    @Test
+    void builder_sorts_tiers_by_delegate() {
+        // prepare
+        final Comparator<Character> natural = Comparator.naturalOrder();
+        final List<Character> values = Arrays.asList('x', 'a', 'q', 'o', 'b', 'z', 'e', 'y', 'c', 'o', 'd');
+
+        // execute
+        final Comparator<Character> subject = FirstLastComparator.builder(natural)
+                .firstTier('z', 'o', 'x').first('q').firstTier('y', 'a', 'x')
+                .lastTier('e', 'c').last('b')
+                .build();
+        final List<Character> sorted = new ArrayList<>(values);
+        FirstLastComparator.sort(sorted, subject);
+
+        // verify
+        assertThat(sortCopy(subject, values), contains('o', 'o', 'x', 'z', 'q', 'a', 'y', 'd', 'c', 'e', 'b'));
+        assertThat(sorted, equalTo(sortCopy(subject, values)));
+        final Character[] radixSorted = values.toArray(new Character[0]);
+        FirstLastComparator.radixSort(radixSorted, subject);
+        assertThat(Arrays.asList(radixSorted), equalTo(sortCopy(subject, values)));
+    }
+
+    @Test
+    void condition_is_evaluated_once_per_element_when_sorting() {
+        // prepare
+        final AtomicInteger evaluations = new AtomicInteger();
+        final List<String> values = Arrays.asList("b", "!urgent", "a", "!alarm", "c", "!", "d");
+        final Comparator<String> first = FirstLastComparator.compareFirst(Comparator.<String>naturalOrder(), s -> {
+            evaluations.incrementAndGet();
+            return s.startsWith("!");
+        });
+        final Comparator<String> last = FirstLastComparator.compareLast(Comparator.<String>naturalOrder(), s -> s.startsWith("!"));
+
+        // execute
+        final List<String> sorted = new ArrayList<>(values);
+        FirstLastComparator.sort(sorted, first);
+
+        // verify
+        assertThat(sorted, contains("!", "!alarm", "!urgent", "a", "b", "c", "d"));
+        assertThat(evaluations.get(), equalTo(values.size()));
+        assertThat(sortCopy(first, values), equalTo(sorted));
+        assertThat(sortCopy(last, values), contains("a", "b", "c", "d", "!", "!alarm", "!urgent"));
+    }
+
+    @Test
+    void prefixes_are_sorted_by_their_rank_and_longest_match() {
+        // prepare
+        final List<String> values = Arrays.asList("user.b", "tenant-42/x", "sys.b", "internal.a", "sys.tmp.a",
+                "user.a", "sys.a", "tenant-7/y", "sys", "internal.b", "tmp");
+        final Comparator<String> subject = FirstLastComparator.compareFirstLastPrefixes(Comparator.naturalOrder(),
+                Arrays.asList("sys.", "internal.", "tenant-42/", "sys."), singletonList("sys.tmp."));
+
+        // execute
+        final List<String> sorted = new ArrayList<>(values);
+        FirstLastComparator.sort(sorted, subject);
+
+        // verify
+        assertThat(sorted, contains("sys.a", "sys.b", "internal.a", "internal.b", "tenant-42/x",
+                "sys", "tenant-7/y", "tmp", "user.a", "user.b", "sys.tmp.a"));
+        assertThat(sortCopy(subject, values), equalTo(sorted));
+        assertThat(sortCopy(FirstLastComparator.compareLastPrefixes(Comparator.naturalOrder(), "user.", "sys."), values),
+                contains("internal.a", "internal.b", "sys", "tenant-42/x", "tenant-7/y", "tmp",
+                        "user.a", "user.b", "sys.a", "sys.b", "sys.tmp.a"));
+    }
+
+    @Test
+    void deserialized_comparators_sort_the_same() throws IOException, ClassNotFoundException {
+        // prepare
+        final Comparator<String> natural = Comparator.naturalOrder();
+        final List<String> values = Arrays.asList("d", "sys.b", "a", "!x", "c", "b", "sys.a", "e", "a");
+        final List<Comparator<String>> comparators = Arrays.asList(
+                FirstLastComparator.builder(natural).first("c").firstTier("e", "a").last("b").lastTier("!x", "d").build(),
+                FirstLastComparator.compareLast(natural, "a", "d", "a"),
+                FirstLastComparator.withRankCache(FirstLastComparator.compareFirst(natural, "b", "sys.a")),
+                FirstLastComparator.compareFirst(natural, (Predicate<String> & Serializable) s -> s.startsWith("!")),
+                FirstLastComparator.compareFirstLastPrefixes(natural, Arrays.asList("sys.", "s"), singletonList("!")));
+
+        for (Comparator<String> comparator : comparators) {
+            // execute
+            final Comparator<String> deserialized = deserialize(serialize(comparator));
+
+            // verify
+            assertThat(deserialized, instanceOf(FirstLastComparator.class));
+            assertThat(sortCopy(deserialized, values), equalTo(sortCopy(comparator, values)));
+            assertThat(serialize(deserialized), equalTo(serialize(comparator)));
+        }
+    }
+
+    @Test
+    void deserialized_precomputed_comparator_has_the_same_sort_keys() throws IOException, ClassNotFoundException {
+        // prepare
+        final List<String> domain = Arrays.asList("USD", "EUR", "gbp", "GBP", "JPY", null);
+        final PrecomputedComparator<String> subject = FirstLastComparator.precompute(domain,
+                FirstLastComparator.compareFirst(Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER), "EUR", "USD"));
+
+        // execute
+        final PrecomputedComparator<String> deserialized = deserialize(serialize(subject));
+
+        // verify
+        for (String value : domain) {
+            assertThat(deserialized.sortKey(value), equalTo(subject.sortKey(value)));
+        }
+        assertThat(serialize(deserialized), equalTo(serialize(subject)));
+    }
+
+    @Test
+    void compareFirstLast_sorts_first_and_last_values_in_one_comparator() {
+        // prepare
+        final Comparator<Character> natural = Comparator.naturalOrder();
+        final Comparator<Character> nested = FirstLastComparator.compareFirst(
+                FirstLastComparator.compareLast(natural, 'z', 'a', 'o'), 'o', 'r');
+
+        // execute
+        final Comparator<Character> subject = FirstLastComparator.compareFirstLast(natural,
+                Arrays.asList('o', 'r'), Arrays.asList('z', 'a', 'o'));
+        final Comparator<Character> built = FirstLastComparator.builder(natural)
+                .last('z', 'a').first('o', 'r').last('o').build();
+
+        // verify
+        assertThat(sortString(subject, "The quick brown fox jumps over the lazy dog"),
+                equalTo("oooorr        Tbcdeeefghhijklmnpqstuuvwxyza"));
+        assertThat(sortString(built, "The quick brown fox jumps over the lazy dog"),
+                equalTo(sortString(subject, "The quick brown fox jumps over the lazy dog")));
+        assertThat(sortString(nested, "The quick brown fox jumps over the lazy dog"),
+                equalTo(sortString(subject, "The quick brown fox jumps over the lazy dog")));
+        final List<Character> characters = new ArrayList<>(sortCopy(natural, Arrays.asList('o', 'x', 'a', 'r', 'b', 'o', 'z')));
+        FirstLastComparator.sort(characters, subject);
+        assertThat(characters, contains('o', 'o', 'r', 'b', 'x', 'z', 'a'));
+    }
+
+    @Test
+    void sort_list_gives_same_result_as_list_sort() {
+        // prepare
+        final List<String> values = Arrays.asList("zzzz", null, "last", "aaaa", "first", null, "    ", "last", "first");
+        final List<Comparator<String>> comparators = Arrays.asList(
+                FirstLastComparator.compareFirst(Comparator.nullsFirst(Comparator.naturalOrder()), "first"),
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), null, "first"),
+                FirstLastComparator.compareLast(Comparator.nullsLast(Comparator.naturalOrder()), "last"),
+                FirstLastComparator.compareLast(Comparator.naturalOrder(), "last", null),
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), "last", "first", null),
+                Comparator.nullsFirst(Comparator.reverseOrder()));
+
+        for (Comparator<String> comparator : comparators) {
+            // execute
+            final List<String> result = new ArrayList<>(values);
+            FirstLastComparator.sort(result, comparator);
+
+            // verify
+            assertThat(result, equalTo(sortCopy(comparator, values)));
+        }
+    }
+
+    @Test
+    void sort_array_only_delegates_other_values() {
+        // prepare
+        final Comparator<String> delegate = (a, b) -> {
+            if (a.startsWith("!") || b.startsWith("!")) throw new IllegalStateException("Explicit value delegated.");
+            return a.compareTo(b);
+        };
+        final Comparator<String> subject = FirstLastComparator.compareLast(delegate, "!2", "!1");
+        final String[] array = {"d", "!1", "b", "!2", "a", "!1", "c"};
+
+        // execute
+        FirstLastComparator.sort(array, subject);
+
+        // verify
+        assertThat(Arrays.asList(array), contains("a", "b", "c", "d", "!2", "!1", "!1"));
+    }
+
+    @Test
+    void sort_is_stable() {
+        // prepare
+        final Comparator<String> subject = FirstLastComparator.compareFirst(String.CASE_INSENSITIVE_ORDER, "x", "X");
+        final String[] array = {"b", "X", "B", "x", "A", "X", "a"};
+
+        // execute
+        FirstLastComparator.sort(array, subject);
+
+        // verify
+        assertThat(Arrays.asList(array), contains("x", "X", "X", "A", "a", "b", "B"));
+    }
+
+    @Test
+    void parallel_sort_gives_same_result_as_arrays_sort() {
+        // prepare
+        final Random random = new Random(42L);
+        final Integer[] values = random.ints(100_000, 0, 10_000).boxed().toArray(Integer[]::new);
+        final Integer[] explicit = random.ints(100, 0, 10_000).boxed().toArray(Integer[]::new);
+        final List<Comparator<Integer>> comparators = Arrays.asList(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), explicit),
+                FirstLastComparator.compareLast(Comparator.reverseOrder(), explicit),
+                FirstLastComparator.comparing(i -> i % 1000, FirstLastComparator.compareFirst(Comparator.naturalOrder(), 7, 3)),
+                Comparator.reverseOrder());
+
+        for (Comparator<Integer> comparator : comparators) {
+            final Integer[] expected = values.clone();
+            Arrays.sort(expected, comparator);
+            final Integer[] result = values.clone();
+
+            // execute
+            FirstLastComparator.parallelSort(result, comparator);
+
+            // verify
+            assertThat(result, equalTo(expected));
+        }
+    }
+
+    @Test
+    void topK_gives_first_values_of_stable_sort() {
+        // prepare
+        final Random random = new Random(42L);
+        final List<String> values = random.ints(5_000, 0, 1_000).mapToObj(i -> "value-" + i).collect(toList());
+        final List<Comparator<String>> comparators = Arrays.asList(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), "value-500", "value-7", "value-123"),
+                FirstLastComparator.compareLast(Comparator.naturalOrder(), "value-0", "value-1"),
+                FirstLastComparator.comparing(String::length, FirstLastComparator.compareFirst(Comparator.reverseOrder(), 8)),
+                Comparator.reverseOrder());
+
+        for (Comparator<String> comparator : comparators) {
+            final List<String> sorted = sortCopy(comparator, values);
+            for (int k : new int[]{0, 1, 5, 50, 10_000}) {
+                // execute
+                final List<String> result = FirstLastComparator.topK(values, k, comparator);
+                final List<String> collected = values.parallelStream().collect(FirstLastComparator.topK(k, comparator));
+
+                // verify
+                final List<String> expected = sorted.subList(0, Math.min(k, sorted.size()));
+                assertThat(result, equalTo(expected));
+                assertThat(collected, equalTo(expected));
+                for (int i = 0; i < expected.size(); i++) {
+                    assertThat(result.get(i), sameInstance(expected.get(i)));
+                    assertThat(collected.get(i), sameInstance(expected.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void topK_stops_when_remaining_values_cannot_be_retained() {
+        // prepare
+        final Comparator<String> subject = FirstLastComparator.compareFirst(Comparator.naturalOrder(), "first", "second");
+        final Iterable<String> values = () -> Arrays.asList("b", "second", "first", "a", "first", "fail").stream()
+                .peek(value -> assertThat(value, not(equalTo("fail"))))
+                .iterator();
+
+        // execute
+        final List<String> result = FirstLastComparator.topK(values, 2, subject);
+
+        // verify
+        assertThat(result, contains("first", "first"));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> FirstLastComparator.topK(values, -1, subject)),
+                hasProperty("message", equalTo("Number of values to retain is negative: -1")));
+    }
+
+    @Test
+    void toSortedList_gives_same_result_as_stable_sort() {
+        // prepare
+        final Random random = new Random(42L);
+        final List<String> values = random.ints(5_000, 0, 1_000).mapToObj(i -> "value-" + i).collect(toList());
+        final List<Comparator<String>> comparators = Arrays.asList(
+                FirstLastComparator.compareFirst(Comparator.naturalOrder(), "value-500", "value-7", "value-123"),
+                FirstLastComparator.compareLast(FirstLastComparator.encounterOrder(), "value-0", "value-1"),
+                FirstLastComparator.comparing(String::length, FirstLastComparator.compareFirst(Comparator.reverseOrder(), 8)),
+                Comparator.reverseOrder());
+
+        for (Comparator<String> comparator : comparators) {
+            final List<String> expected = sortCopy(comparator, values);
+
+            // execute
+            final List<String> collected = values.parallelStream().collect(FirstLastComparator.toSortedList(comparator));
+            final List<String> streamed = FirstLastComparator.sorted(values.stream(), comparator).collect(toList());
+
+            // verify
+            assertThat(collected, equalTo(expected));
+            assertThat(streamed, equalTo(expected));
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(collected.get(i), sameInstance(expected.get(i)));
+                assertThat(streamed.get(i), sameInstance(expected.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void sorted_passes_through_values_that_need_no_ordering() {
+        // prepare
+        final List<String> consumed = new ArrayList<>();
+        final Stream<String> stream = Stream.of("b", "last", "a", "c", "last", "d").peek(consumed::add);
+        final Comparator<String> subject = FirstLastComparator.compareLast(FirstLastComparator.encounterOrder(), "last");
+
+        // execute
+        final Iterator<String> result = FirstLastComparator.sorted(stream, subject).iterator();
+
+        // verify
+        assertThat(result.next(), equalTo("b"));
+        assertThat(consumed, contains("b"));
+        assertThat(result.next(), equalTo("a"));
+        assertThat(consumed, contains("b", "last", "a"));
+        final List<String> remaining = new ArrayList<>();
+        result.forEachRemaining(remaining::add);
+        assertThat(remaining, contains("c", "d", "last", "last"));
+    }
+
+    @Test
+    void rank_cache_looks_up_rank_aware_values_only_once() {
+        // prepare
+        final AtomicInteger hashCodes = new AtomicInteger();
+        final List<CountingKey> values = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            values.add(new CountingKey(i, hashCodes));
+        }
+        Collections.shuffle(values, new Random(42L));
+        final Comparator<CountingKey> comparator = FirstLastComparator.compareFirst(
+                Comparator.comparingInt(key -> key.value), new CountingKey(7, hashCodes), new CountingKey(3, hashCodes));
+        final Comparator<CountingKey> subject = FirstLastComparator.withRankCache(comparator);
+        final List<CountingKey> expected = sortCopy(comparator, values);
+        final int uncachedHashCodes = hashCodes.getAndSet(0);
+
+        // execute
+        final List<CountingKey> sorted = sortCopy(subject, values);
+        final TreeSet<CountingKey> treeSet = new TreeSet<>(subject);
+        treeSet.addAll(values);
+        final PriorityQueue<CountingKey> queue = new PriorityQueue<>(subject);
+        queue.addAll(values);
+        final List<CountingKey> polled = new ArrayList<>();
+        while (!queue.isEmpty()) polled.add(queue.poll());
+        final int cachedHashCodes = hashCodes.get();
+
+        // verify
+        assertThat(sorted, equalTo(expected));
+        assertThat(new ArrayList<>(treeSet), equalTo(expected));
+        assertThat(polled, equalTo(expected));
+        assertThat(uncachedHashCodes, greaterThan(2 * values.size()));
+        assertThat(cachedHashCodes, equalTo(values.size()));
+    }
+
+    @Test
+    void rank_cache_keeps_the_rank_per_comparator() {
+        // prepare
+        final AtomicInteger hashCodes = new AtomicInteger();
+        final CountingKey pinned = new CountingKey(7, hashCodes);
+        final CountingKey other = new CountingKey(3, hashCodes);
+        final Comparator<CountingKey> delegate = Comparator.comparingInt(key -> key.value);
+        final Comparator<CountingKey> first = FirstLastComparator.withRankCache(FirstLastComparator.compareFirst(delegate, pinned));
+        final Comparator<CountingKey> last = FirstLastComparator.withRankCache(FirstLastComparator.compareLast(delegate, pinned));
+
+        // execute
+        final int[] results = {first.compare(pinned, other), last.compare(pinned, other), first.compare(pinned, other)};
+
+        // verify
+        assertThat(results[0], lessThan(0));
+        assertThat(results[1], greaterThan(0));
+        assertThat(results[2], lessThan(0));
+        assertThat(FirstLastComparator.withRankCache(first), sameInstance(first));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> FirstLastComparator.withRankCache(Comparator.<String>naturalOrder())),
+                hasProperty("message", startsWith("Not a FirstLastComparator: ")));
+    }
+
+    @Test
+    void comparing_sorts_by_extracted_key() {
+        // prepare
+        final Comparator<String> subject = FirstLastComparator.comparing(String::length,
+                FirstLastComparator.compareLast(Comparator.naturalOrder(), 3));
+        final List<String> values = Arrays.asList("four", "one", "three", "two", "", "five", "six");
+
+        // execute
+        final List<String> result = sortCopy(subject, values);
+
+        // verify
+        assertThat(result, contains("", "four", "five", "three", "one", "two", "six"));
+    }
+
+    @Test
+    void sort_extracts_keys_only_once() {
+        // prepare
+        final AtomicInteger extractions = new AtomicInteger();
+        final Function<String, Integer> length = value -> {
+            extractions.incrementAndGet();
+            return value.length();
+        };
+        final List<String> values = Arrays.asList("four", "one", "three", "two", "", "five", "six", "seven", "eight");
+        final List<Comparator<String>> comparators = Arrays.asList(
+                FirstLastComparator.comparing(length, FirstLastComparator.compareFirst(Comparator.reverseOrder(), 3, 0)),
+                FirstLastComparator.comparing(length, Comparator.naturalOrder()));
+
+        for (Comparator<String> comparator : comparators) {
+            final List<String> result = new ArrayList<>(values);
+            final List<String> expected = sortCopy(comparator, values);
+            extractions.set(0);
+
+            // execute
+            FirstLastComparator.sort(result, comparator);
+
+            // verify
+            assertThat(result, equalTo(expected));
+            assertThat(extractions.get(), equalTo(values.size()));
+        }
+    }
+
     @Test
     void all_parameters_to_factorymethods_are_required() {
         final Comparator<String> natural = Comparator.naturalOrder();
@@ -135,6 +753,67 @@ class FirstLastComparatorTest {
                 hasProperty("message", equalTo("Delegate comparator is <null>.")));
         assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareLast(natural, (List<String>) null)),
                 hasProperty("message", equalTo("lastValues is <null>.")));
+
+        // Check nulls for forEnum
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.forEnum(null, Comparator.<TimeUnit>naturalOrder())),
+                hasProperty("message", equalTo("Enum type is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.forEnum(TimeUnit.class, null)),
+                hasProperty("message", equalTo("Delegate comparator is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.forEnum(TimeUnit.class, Comparator.naturalOrder(), (TimeUnit[]) null)),
+                hasProperty("message", equalTo("firstValues is <null>.")));
+
+        // Check nulls for precompute
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.precompute(null, natural)),
+                hasProperty("message", equalTo("Domain is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.precompute(emptyList(), null)),
+                hasProperty("message", equalTo("Comparator is <null>.")));
+
+        // Check nulls for conditions
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareFirst(natural, (Predicate<String>) null)),
+                hasProperty("message", equalTo("Condition is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareLast(null, String::isEmpty)),
+                hasProperty("message", equalTo("Delegate comparator is <null>.")));
+
+        // Check nulls for prefixes
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareFirstPrefixes(natural, (String[]) null)),
+                hasProperty("message", equalTo("firstPrefixes is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareFirstPrefixes(natural, "sys.", null)),
+                hasProperty("message", equalTo("Prefix is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.compareFirstLastPrefixes(natural, emptyList(), null)),
+                hasProperty("message", equalTo("lastPrefixes is <null>.")));
+
+        // Check nulls for comparing
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.comparing(null, natural)),
+                hasProperty("message", equalTo("Key extractor is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.comparing(String::length, null)),
+                hasProperty("message", equalTo("Key comparator is <null>.")));
+    }
+
+    static final class CountingKey implements RankAware {
+        private final int value;
+        private final AtomicInteger hashCodes;
+        private final RankCache rankCache = new RankCache();
+
+        CountingKey(int value, AtomicInteger hashCodes) {
+            this.value = value;
+            this.hashCodes = hashCodes;
+        }
+
+        @Override
+        public RankCache rankCache() {
+            return rankCache;
+        }
+
+        @Override
+        public int hashCode() {
+            hashCodes.incrementAndGet();
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof CountingKey && value == ((CountingKey) other).value);
+        }
     }
 
     static String sortString(Comparator<Character> comparator, String characters) {
@@ -146,6 +825,21 @@ class FirstLastComparatorTest {
         return sortCopy(comparator, values).stream().collect(StringBuilder::new, StringBuilder::append, StringBuilder::append).toString();
     }
 
+    private static byte[] serialize(Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) in.readObject();
+        }
+    }
+
     static <T> List<T> sortCopy(Comparator<? super T> comparator, Collection<? extends T> values) {
         final List<T> sortedCopy = new ArrayList<>(values);
         sortedCopy.sort(comparator);
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FirstLastSearchIndexTest {
+    private static final Comparator<Integer> COMPARATOR = FirstLastComparator.compareFirstLast(
+            Comparator.naturalOrder(), Arrays.asList(50, 7, 99), Arrays.asList(0, 12));
+
+    @Test
+    void binarySearch_agrees_with_collections_binarySearch() {
+        // prepare
+        final Random random = new Random(42L);
+        final List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            sorted.add(random.nextInt(60) * 2);
+        }
+        FirstLastComparator.sort(sorted, COMPARATOR);
+
+        // execute
+        final FirstLastSearchIndex<Integer> subject = new FirstLastSearchIndex<>(sorted, COMPARATOR);
+
+        // verify
+        for (int value = -1; value <= 121; value++) {
+            final int expected = Collections.binarySearch(sorted, value, COMPARATOR);
+            final int result = subject.binarySearch(value);
+            if (expected < 0) {
+                assertThat(result, equalTo(expected));
+            } else {
+                assertThat(sorted.get(result), equalTo(value));
+            }
+            assertThat(subject.equalRange(value).size(), equalTo(Collections.frequency(sorted, value)));
+        }
+    }
+
+    @Test
+    void range_returns_view_of_sorted_list() {
+        // prepare
+        final List<Integer> sorted = new ArrayList<>(Arrays.asList(3, 12, 99, 8, 50, 0, 1, 50, 12, 20));
+        FirstLastComparator.sort(sorted, COMPARATOR);
+        final FirstLastSearchIndex<Integer> subject = new FirstLastSearchIndex<>(sorted, COMPARATOR);
+
+        // execute
+        final List<Integer> range = subject.range(99, 8);
+        final List<Integer> pinned = subject.equalRange(50);
+
+        // verify
+        assertThat(sorted, contains(50, 50, 99, 1, 3, 8, 20, 0, 12, 12));
+        assertThat(range, contains(99, 1, 3));
+        assertThat(pinned, contains(50, 50));
+        assertThat(subject.range(20, 12), contains(20, 0));
+        assertThat(subject.binarySearch(7), equalTo(-3));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> subject.range(12, 50)),
+                hasProperty("message", equalTo("from > to")));
+    }
+}
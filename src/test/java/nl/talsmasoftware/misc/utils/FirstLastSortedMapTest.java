@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FirstLastSortedMapTest {
+    private static final Comparator<Integer> COMPARATOR = FirstLastComparator.compareFirstLast(
+            Comparator.naturalOrder(), Arrays.asList(5, 2, 17), Arrays.asList(0, 30));
+
+    @Test
+    void behaves_like_treemap_with_same_comparator() {
+        // prepare
+        final Random random = new Random(42L);
+        final NavigableMap<Integer, String> expected = new TreeMap<>(COMPARATOR);
+        final NavigableMap<Integer, String> subject = new FirstLastSortedMap<>(COMPARATOR);
+
+        for (int i = 0; i < 500; i++) {
+            // execute
+            final int key = random.nextInt(32);
+            if (random.nextInt(3) == 0) {
+                assertThat(subject.remove(key), equalTo(expected.remove(key)));
+            } else {
+                assertThat(subject.put(key, "v" + i), equalTo(expected.put(key, "v" + i)));
+            }
+
+            // verify
+            if (i % 50 == 0) {
+                assertSameNavigation(subject, expected);
+                assertSameNavigation(subject.descendingMap(), expected.descendingMap());
+                assertSameNavigation(subject.headMap(10, true), expected.headMap(10, true));
+                assertSameNavigation(subject.tailMap(2, false), expected.tailMap(2, false));
+                assertSameNavigation(subject.subMap(17, true, 0, false), expected.subMap(17, true, 0, false));
+                assertSameNavigation(subject.descendingMap().headMap(3, false).tailMap(30, true),
+                        expected.descendingMap().headMap(3, false).tailMap(30, true));
+            }
+        }
+    }
+
+    @Test
+    void views_write_through() {
+        // prepare
+        final NavigableMap<Integer, String> subject = new FirstLastSortedMap<>(COMPARATOR);
+        for (int key = 0; key < 10; key++) {
+            subject.put(key, "v" + key);
+        }
+        final NavigableMap<Integer, String> view = subject.subMap(2, false, 9, true);
+
+        // execute
+        view.remove(3);
+        view.put(8, "eight");
+        final Iterator<Map.Entry<Integer, String>> iterator = view.entrySet().iterator();
+        iterator.next().setValue("one");
+        iterator.next();
+        iterator.remove();
+
+        // verify
+        assertThat(subject.keySet(), contains(5, 2, 1, 6, 7, 8, 9, 0));
+        assertThat(subject.values(), contains("v5", "v2", "one", "v6", "v7", "eight", "v9", "v0"));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> view.put(0, "zero")),
+                hasProperty("message", equalTo("Key out of range: 0")));
+    }
+
+    @Test
+    void iterators_remove_like_treemap_with_same_comparator() {
+        // prepare
+        final NavigableMap<Integer, String> expected = new TreeMap<>(COMPARATOR);
+        final NavigableMap<Integer, String> subject = new FirstLastSortedMap<>(COMPARATOR);
+        for (int key = 0; key < 32; key++) {
+            expected.put(key, "v" + key);
+            subject.put(key, "v" + key);
+        }
+
+        // execute
+        removeEveryOther(subject.entrySet().iterator());
+        removeEveryOther(expected.entrySet().iterator());
+        removeEveryOther(subject.descendingMap().tailMap(20, false).entrySet().iterator());
+        removeEveryOther(expected.descendingMap().tailMap(20, false).entrySet().iterator());
+
+        // verify
+        assertSameNavigation(subject, expected);
+    }
+
+    @Test
+    void set_behaves_like_treeset_with_same_comparator() {
+        // prepare
+        final NavigableSet<Integer> expected = new TreeSet<>(COMPARATOR);
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+
+        // execute
+        for (int value : new int[]{3, 30, 5, 12, 0, 17, 5, 2, 8}) {
+            assertThat(subject.add(value), equalTo(expected.add(value)));
+        }
+        assertThat(subject.remove(12), equalTo(expected.remove(12)));
+
+        // verify
+        assertThat(new ArrayList<>(subject), equalTo(new ArrayList<>(expected)));
+        assertThat(new ArrayList<>(subject.descendingSet()), equalTo(new ArrayList<>(expected.descendingSet())));
+        assertThat(new ArrayList<>(subject.headSet(3)), equalTo(new ArrayList<>(expected.headSet(3))));
+        assertThat(subject.ceiling(4), equalTo(expected.ceiling(4)));
+        assertThat(subject.lower(30), equalTo(expected.lower(30)));
+        assertThat(subject.pollFirst(), equalTo(expected.pollFirst()));
+        assertThat(subject.pollLast(), equalTo(expected.pollLast()));
+        assertThat(new ArrayList<>(subject), equalTo(new ArrayList<>(expected)));
+    }
+
+    private static void removeEveryOther(Iterator<?> iterator) {
+        for (boolean remove = false; iterator.hasNext(); remove = !remove) {
+            iterator.next();
+            if (remove) iterator.remove();
+        }
+    }
+
+    private static void assertSameNavigation(NavigableMap<Integer, String> subject, NavigableMap<Integer, String> expected) {
+        assertThat(new ArrayList<>(subject.entrySet()), equalTo(new ArrayList<>(expected.entrySet())));
+        assertThat(subject.size(), equalTo(expected.size()));
+        assertThat(subject.firstEntry(), equalTo(expected.firstEntry()));
+        assertThat(subject.lastEntry(), equalTo(expected.lastEntry()));
+        for (int key = -1; key <= 32; key++) {
+            assertThat(subject.get(key), equalTo(expected.get(key)));
+            assertThat(subject.lowerEntry(key), equalTo(expected.lowerEntry(key)));
+            assertThat(subject.floorEntry(key), equalTo(expected.floorEntry(key)));
+            assertThat(subject.ceilingEntry(key), equalTo(expected.ceilingEntry(key)));
+            assertThat(subject.higherEntry(key), equalTo(expected.higherEntry(key)));
+        }
+    }
+}
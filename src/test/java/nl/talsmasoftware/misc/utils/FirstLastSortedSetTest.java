@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FirstLastSortedSetTest {
+    private static final Comparator<Integer> COMPARATOR = FirstLastComparator.compareFirstLast(
+            Comparator.naturalOrder(), Arrays.asList(5, 2, 17), Arrays.asList(0, 30));
+
+    @Test
+    void behaves_like_treeset_with_same_comparator() {
+        // prepare
+        final Random random = new Random(42L);
+        final NavigableSet<Integer> expected = new TreeSet<>(COMPARATOR);
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+
+        for (int i = 0; i < 500; i++) {
+            // execute
+            final int value = random.nextInt(32);
+            if (random.nextInt(3) == 0) {
+                assertThat(subject.remove(value), equalTo(expected.remove(value)));
+            } else {
+                assertThat(subject.add(value), equalTo(expected.add(value)));
+            }
+
+            // verify
+            if (i % 50 == 0) {
+                assertSameNavigation(subject, expected);
+                assertSameNavigation(subject.descendingSet(), expected.descendingSet());
+                assertSameNavigation(subject.headSet(10, true), expected.headSet(10, true));
+                assertSameNavigation(subject.tailSet(2, false), expected.tailSet(2, false));
+                assertSameNavigation(subject.subSet(17, true, 0, false), expected.subSet(17, true, 0, false));
+                assertSameNavigation(subject.descendingSet().headSet(3, false).tailSet(30, true),
+                        expected.descendingSet().headSet(3, false).tailSet(30, true));
+            }
+        }
+    }
+
+    @Test
+    void sorted_set_views_exclude_upper_bound() {
+        // prepare
+        final NavigableSet<Integer> expected = new TreeSet<>(COMPARATOR);
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+        for (int value = 0; value < 32; value++) {
+            expected.add(value);
+            subject.add(value);
+        }
+
+        // execute
+        final SortedSet<Integer> subSet = subject.subSet(2, 9);
+        final SortedSet<Integer> headSet = subject.headSet(1);
+        final SortedSet<Integer> tailSet = subject.tailSet(31);
+
+        // verify
+        assertThat(new ArrayList<>(subSet), equalTo(new ArrayList<>(expected.subSet(2, 9))));
+        assertThat(headSet, contains(5, 2, 17));
+        assertThat(tailSet, contains(31, 0, 30));
+    }
+
+    @Test
+    void views_write_through() {
+        // prepare
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+        for (int value = 0; value < 10; value++) {
+            subject.add(value);
+        }
+        final NavigableSet<Integer> view = subject.subSet(2, false, 9, true);
+
+        // execute
+        view.remove(3);
+        subject.remove(8);
+        view.add(8);
+        final Iterator<Integer> iterator = view.iterator();
+        iterator.next();
+        iterator.next();
+        iterator.remove();
+
+        // verify
+        assertThat(view, contains(1, 6, 7, 8, 9));
+        assertThat(subject, contains(5, 2, 1, 6, 7, 8, 9, 0));
+        assertThat(view.contains(5), equalTo(false));
+        assertThat(assertThrows(IllegalArgumentException.class, () -> view.add(0)),
+                hasProperty("message", equalTo("Key out of range: 0")));
+    }
+
+    @Test
+    void poll_views_like_treeset_with_same_comparator() {
+        // prepare
+        final NavigableSet<Integer> expected = new TreeSet<>(COMPARATOR);
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+        for (int value = 0; value < 32; value++) {
+            expected.add(value);
+            subject.add(value);
+        }
+
+        // execute & verify
+        assertThat(subject.pollFirst(), equalTo(expected.pollFirst()));
+        assertThat(subject.pollLast(), equalTo(expected.pollLast()));
+        assertThat(subject.descendingSet().pollFirst(), equalTo(expected.descendingSet().pollFirst()));
+        assertThat(subject.headSet(10, false).pollLast(), equalTo(expected.headSet(10, false).pollLast()));
+        assertThat(subject.tailSet(20, true).pollFirst(), equalTo(expected.tailSet(20, true).pollFirst()));
+        assertThat(subject.subSet(2, true, 6, true).pollFirst(), equalTo(expected.subSet(2, true, 6, true).pollFirst()));
+        assertThat(subject.subSet(25, false, 29, false).pollLast(),
+                equalTo(expected.subSet(25, false, 29, false).pollLast()));
+        assertSameNavigation(subject, expected);
+        assertThat(new FirstLastSortedSet<>(COMPARATOR).pollFirst(), equalTo(null));
+        assertThat(new FirstLastSortedSet<>(COMPARATOR).pollLast(), equalTo(null));
+    }
+
+    @Test
+    void iterators_remove_like_treeset_with_same_comparator() {
+        // prepare
+        final NavigableSet<Integer> expected = new TreeSet<>(COMPARATOR);
+        final NavigableSet<Integer> subject = new FirstLastSortedSet<>(COMPARATOR);
+        for (int value = 0; value < 32; value++) {
+            expected.add(value);
+            subject.add(value);
+        }
+
+        // execute
+        removeEveryOther(subject.iterator());
+        removeEveryOther(expected.iterator());
+        removeEveryOther(subject.descendingSet().tailSet(20, false).iterator());
+        removeEveryOther(expected.descendingSet().tailSet(20, false).iterator());
+        removeEveryOther(subject.descendingIterator());
+        removeEveryOther(expected.descendingIterator());
+
+        // verify
+        assertSameNavigation(subject, expected);
+    }
+
+    private static void removeEveryOther(Iterator<?> iterator) {
+        for (boolean remove = false; iterator.hasNext(); remove = !remove) {
+            iterator.next();
+            if (remove) iterator.remove();
+        }
+    }
+
+    private static void assertSameNavigation(NavigableSet<Integer> subject, NavigableSet<Integer> expected) {
+        assertThat(new ArrayList<>(subject), equalTo(new ArrayList<>(expected)));
+        assertThat(subject.size(), equalTo(expected.size()));
+        assertThat(subject.isEmpty(), equalTo(expected.isEmpty()));
+        if (!expected.isEmpty()) {
+            assertThat(subject.first(), equalTo(expected.first()));
+            assertThat(subject.last(), equalTo(expected.last()));
+        }
+        for (int value = -1; value <= 32; value++) {
+            assertThat(subject.contains(value), equalTo(expected.contains(value)));
+            assertThat(subject.lower(value), equalTo(expected.lower(value)));
+            assertThat(subject.floor(value), equalTo(expected.floor(value)));
+            assertThat(subject.ceiling(value), equalTo(expected.ceiling(value)));
+            assertThat(subject.higher(value), equalTo(expected.higher(value)));
+        }
+    }
+}
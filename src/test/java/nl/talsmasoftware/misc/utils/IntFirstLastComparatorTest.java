@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntFirstLastComparatorTest {
+    @Test
+    void must_sort_values_first() {
+        // prepare
+        final int[] array = {5, 3, 9, 1, 3, 7, 9, Integer.MIN_VALUE, 0};
+
+        // execute
+        IntFirstLastComparator.compareFirst(9, 3, 0).sort(array);
+
+        // verify
+        assertThat(array, equalTo(new int[]{9, 9, 3, 3, 0, Integer.MIN_VALUE, 1, 5, 7}));
+    }
+
+    @Test
+    void must_sort_values_last() {
+        // prepare
+        final int[] array = {5, 3, 9, 1, 3, 7, 9, Integer.MAX_VALUE, 0};
+
+        // execute
+        IntFirstLastComparator.compareLast(9, 3, 0).sort(array);
+
+        // verify
+        assertThat(array, equalTo(new int[]{1, 5, 7, Integer.MAX_VALUE, 9, 9, 3, 3, 0}));
+    }
+
+    @Test
+    void sort_range_leaves_other_elements_alone() {
+        // prepare
+        final int[] array = {8, 5, 3, 1, 3, 0};
+
+        // execute
+        IntFirstLastComparator.compareFirst(3).sort(array, 1, 5);
+
+        // verify
+        assertThat(array, equalTo(new int[]{8, 3, 3, 1, 5, 0}));
+    }
+
+    @Test
+    void sort_gives_same_result_as_boxed_comparator() {
+        // prepare
+        final Random random = new Random(42L);
+        final int[] explicit = random.ints(100, -500, 500).toArray();
+        final int[] array = random.ints(10_000, -1000, 1000).toArray();
+        final Integer[] boxed = Arrays.stream(array).boxed().toArray(Integer[]::new);
+
+        for (boolean first : new boolean[]{true, false}) {
+            final IntFirstLastComparator subject = first
+                    ? IntFirstLastComparator.compareFirst(explicit)
+                    : IntFirstLastComparator.compareLast(explicit);
+            final Integer[] boxedExplicit = Arrays.stream(explicit).boxed().toArray(Integer[]::new);
+            final Comparator<Integer> expected = first
+                    ? FirstLastComparator.compareFirst(Comparator.naturalOrder(), boxedExplicit)
+                    : FirstLastComparator.compareLast(Comparator.naturalOrder(), boxedExplicit);
+
+            // execute
+            final int[] result = array.clone();
+            subject.sort(result);
+            Arrays.sort(boxed, expected);
+
+            // verify
+            assertThat(Arrays.stream(result).boxed().toArray(Integer[]::new), equalTo(boxed));
+            for (int i = 1; i < result.length; i++) {
+                assertThat(Integer.signum(subject.compare(result[i - 1], result[i])),
+                        equalTo(Integer.signum(expected.compare(result[i - 1], result[i]))));
+            }
+        }
+    }
+
+    @Test
+    void all_parameters_to_factorymethods_are_required() {
+        assertThat(assertThrows(NullPointerException.class, () -> IntFirstLastComparator.compareFirst((int[]) null)),
+                hasProperty("message", equalTo("firstValues is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> IntFirstLastComparator.compareLast((int[]) null)),
+                hasProperty("message", equalTo("lastValues is <null>.")));
+    }
+}
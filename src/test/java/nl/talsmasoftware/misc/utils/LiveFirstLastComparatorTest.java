@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiveFirstLastComparatorTest {
+    private static final List<String> VALUES = Arrays.asList("d", "b", "vip", "a", "c", "banned");
+
+    private Path tempDirectory;
+
+    @BeforeEach
+    void createTempDirectory() throws IOException {
+        tempDirectory = Files.createTempDirectory("live-comparator-test");
+    }
+
+    @AfterEach
+    void deleteTempDirectory() throws IOException {
+        Files.deleteIfExists(tempDirectory.resolve("pinned.txt"));
+        Files.delete(tempDirectory);
+    }
+
+    @Test
+    void update_replaces_the_values_for_later_comparisons() {
+        // prepare
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.naturalOrder(), singletonList("vip"), emptyList());
+        final Comparator<String> before = subject.snapshot();
+
+        // execute
+        subject.update(singletonList("c"), singletonList("vip"));
+
+        // verify
+        assertThat(FirstLastComparatorTest.sortCopy(before, VALUES), contains("vip", "a", "b", "banned", "c", "d"));
+        assertThat(FirstLastComparatorTest.sortCopy(subject, VALUES), contains("c", "a", "b", "banned", "d", "vip"));
+        assertThat(subject.snapshot(), instanceOf(FirstLastComparator.class));
+    }
+
+    @Test
+    void update_with_same_values_reuses_the_interned_snapshot() {
+        // prepare
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.naturalOrder(), singletonList("vip"), singletonList("banned"));
+        final Comparator<String> before = subject.snapshot();
+
+        // execute
+        subject.update(singletonList("vip"), singletonList("banned"));
+
+        // verify
+        assertThat(subject.snapshot(), sameInstance(before));
+    }
+
+    @Test
+    void sorted_structures_use_the_snapshot_at_creation() {
+        // prepare
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.naturalOrder(), singletonList("vip"), emptyList());
+        final FirstLastSortedSet<String> set = new FirstLastSortedSet<>(subject);
+
+        // execute
+        set.addAll(VALUES);
+        subject.update(emptyList(), singletonList("vip"));
+        set.add("e");
+
+        // verify
+        assertThat(set, contains("vip", "a", "b", "banned", "c", "d", "e"));
+        assertThat(FirstLastComparatorTest.sortCopy(subject, VALUES), contains("a", "b", "banned", "c", "d", "vip"));
+    }
+
+    @Test
+    void structures_use_the_snapshot_of_a_live_key_comparator() {
+        // prepare
+        final LiveFirstLastComparator<Integer> lengths = FirstLastComparator.live(
+                Comparator.naturalOrder(), singletonList(5), emptyList());
+        final Comparator<String> subject = FirstLastComparator.comparing(String::length, lengths);
+        final FirstLastSortedMap<String, Integer> map = new FirstLastSortedMap<>(subject);
+        final FirstLastBlockingQueue<String> queue = new FirstLastBlockingQueue<>(subject);
+        final List<String> values = Arrays.asList("aaa", "a", "aaaaa", "aa");
+        values.forEach(value -> map.put(value, value.length()));
+        queue.addAll(values);
+
+        // execute
+        lengths.update(emptyList(), Arrays.asList(1, 2));
+        queue.add("aaaa");
+        final List<String> drained = new ArrayList<>();
+        queue.drainTo(drained);
+
+        // verify
+        assertThat(map.keySet(), contains("aaaaa", "a", "aa", "aaa"));
+        assertThat(map.headMap("aaa").keySet(), contains("aaaaa", "a", "aa"));
+        assertThat(map.comparator().compare("a", "aaa"), lessThan(0));
+        assertThat(drained, contains("aaaaa", "a", "aa", "aaa", "aaaa"));
+    }
+
+    @Test
+    void watch_loads_the_file_and_reloads_it_when_it_changes() throws IOException, InterruptedException {
+        // prepare
+        final Path file = tempDirectory.resolve("pinned.txt");
+        write(file, "# pinned values", "vip", "", "*", "banned");
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.<String>naturalOrder(), emptyList(), emptyList());
+
+        // execute
+        try (Closeable watch = subject.watch(file, Function.identity())) {
+            final List<String> loaded = FirstLastComparatorTest.sortCopy(subject, VALUES);
+            write(file, "c", "d");
+            final List<String> reloaded = Arrays.asList("c", "d", "a", "b", "banned", "vip");
+            for (long deadline = System.currentTimeMillis() + 30_000;
+                 !FirstLastComparatorTest.sortCopy(subject, VALUES).equals(reloaded) && System.currentTimeMillis() < deadline; ) {
+                Thread.sleep(10);
+            }
+
+            // verify
+            assertThat(loaded, contains("vip", "a", "b", "c", "d", "banned"));
+            assertThat(FirstLastComparatorTest.sortCopy(subject, VALUES), equalTo(reloaded));
+        }
+    }
+
+    @Test
+    void watch_reports_reload_failures_and_keeps_the_previous_values() throws IOException, InterruptedException {
+        // prepare
+        final Path file = tempDirectory.resolve("pinned.txt");
+        write(file, "vip", "*", "banned");
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.<String>naturalOrder(), emptyList(), emptyList());
+        final BlockingQueue<Exception> failures = new LinkedBlockingQueue<>();
+        final Function<String, String> parser = line -> {
+            if (line.equals("invalid")) throw new IllegalArgumentException("Invalid value: " + line);
+            return line;
+        };
+
+        // execute
+        final Exception failure;
+        try (Closeable watch = subject.watch(file, parser, failures::add)) {
+            write(file, "c", "invalid");
+            failure = failures.poll(30, TimeUnit.SECONDS);
+        }
+
+        // verify
+        assertThat(failure, instanceOf(IllegalArgumentException.class));
+        assertThat(failure, hasProperty("message", equalTo("Invalid value: invalid")));
+        assertThat(FirstLastComparatorTest.sortCopy(subject, VALUES), contains("vip", "a", "b", "c", "d", "banned"));
+    }
+
+    @Test
+    void nulls() {
+        final LiveFirstLastComparator<String> subject = FirstLastComparator.live(
+                Comparator.<String>naturalOrder(), emptyList(), emptyList());
+
+        assertThat(assertThrows(NullPointerException.class, () -> FirstLastComparator.live(null, emptyList(), emptyList())),
+                hasProperty("message", equalTo("Delegate comparator is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> subject.update(null, emptyList())),
+                hasProperty("message", equalTo("firstValues is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> subject.update(emptyList(), null)),
+                hasProperty("message", equalTo("lastValues is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> subject.watch(null, Function.identity())),
+                hasProperty("message", equalTo("File is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> subject.watch(tempDirectory, null)),
+                hasProperty("message", equalTo("Parser is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> subject.watch(tempDirectory, Function.identity(), null)),
+                hasProperty("message", equalTo("Error handler is <null>.")));
+    }
+
+    private static void write(Path file, String... lines) throws IOException {
+        final Path written = Files.write(file.resolveSibling(file.getFileName() + ".tmp"),
+                Arrays.asList(lines), StandardCharsets.UTF_8);
+        Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.misc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongFirstLastComparatorTest {
+    @Test
+    void must_sort_values_first() {
+        // prepare
+        final long[] array = {5L, 3L, 9L, 1L, 3L, 7L, 9L, Long.MIN_VALUE, 0L};
+
+        // execute
+        LongFirstLastComparator.compareFirst(9L, 3L, 0L).sort(array);
+
+        // verify
+        assertThat(array, equalTo(new long[]{9L, 9L, 3L, 3L, 0L, Long.MIN_VALUE, 1L, 5L, 7L}));
+    }
+
+    @Test
+    void must_sort_values_last() {
+        // prepare
+        final long[] array = {5L, 3L, 9L, 1L, 3L, 7L, 9L, Long.MAX_VALUE, 0L};
+
+        // execute
+        LongFirstLastComparator.compareLast(9L, 3L, 0L).sort(array);
+
+        // verify
+        assertThat(array, equalTo(new long[]{1L, 5L, 7L, Long.MAX_VALUE, 9L, 9L, 3L, 3L, 0L}));
+    }
+
+    @Test
+    void sort_range_leaves_other_elements_alone() {
+        // prepare
+        final long[] array = {8L, 5L, 3L, 1L, 3L, 0L};
+
+        // execute
+        LongFirstLastComparator.compareFirst(3L).sort(array, 1, 5);
+
+        // verify
+        assertThat(array, equalTo(new long[]{8L, 3L, 3L, 1L, 5L, 0L}));
+    }
+
+    @Test
+    void sort_gives_same_result_as_boxed_comparator() {
+        // prepare
+        final Random random = new Random(42L);
+        final long[] explicit = random.longs(100, -500L, 500L).toArray();
+        final long[] array = random.longs(10_000, -1000L, 1000L).toArray();
+        final Long[] boxed = Arrays.stream(array).boxed().toArray(Long[]::new);
+
+        for (boolean first : new boolean[]{true, false}) {
+            final LongFirstLastComparator subject = first
+                    ? LongFirstLastComparator.compareFirst(explicit)
+                    : LongFirstLastComparator.compareLast(explicit);
+            final Long[] boxedExplicit = Arrays.stream(explicit).boxed().toArray(Long[]::new);
+            final Comparator<Long> expected = first
+                    ? FirstLastComparator.compareFirst(Comparator.naturalOrder(), boxedExplicit)
+                    : FirstLastComparator.compareLast(Comparator.naturalOrder(), boxedExplicit);
+
+            // execute
+            final long[] result = array.clone();
+            subject.sort(result);
+            Arrays.sort(boxed, expected);
+
+            // verify
+            assertThat(Arrays.stream(result).boxed().toArray(Long[]::new), equalTo(boxed));
+            for (int i = 1; i < result.length; i++) {
+                assertThat(Integer.signum(subject.compare(result[i - 1], result[i])),
+                        equalTo(Integer.signum(expected.compare(result[i - 1], result[i]))));
+            }
+        }
+    }
+
+    @Test
+    void all_parameters_to_factorymethods_are_required() {
+        assertThat(assertThrows(NullPointerException.class, () -> LongFirstLastComparator.compareFirst((long[]) null)),
+                hasProperty("message", equalTo("firstValues is <null>.")));
+        assertThat(assertThrows(NullPointerException.class, () -> LongFirstLastComparator.compareLast((long[]) null)),
+                hasProperty("message", equalTo("lastValues is <null>.")));
+    }
+}